@@ -0,0 +1,30 @@
+package annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * Caches loaded entities of this @Entity in the shared second-level cache.
+ * findById of repository reads cached entities without a db round trip, entities are dropped from the cache
+ * when they are updated or removed through a repository.
+ * It suits read-heavy reference entities that are not written around the orm.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Cacheable
+{
+    /**
+     * Maximum number of cached entities, an entry is evicted by eviction policy when It is exceeded.
+     */
+    int maxEntries() default 1000;
+
+    /**
+     * Time to live of a cached entity in milliseconds, entities don't expire If It is 0.
+     */
+    long timeToLive() default 0;
+
+    /**
+     * Policy that chooses the evicted entity of a full cache.
+     */
+    EvictionPolicy eviction() default EvictionPolicy.LRU;
+}
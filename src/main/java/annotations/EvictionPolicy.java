@@ -0,0 +1,17 @@
+package annotations;
+
+/**
+ * Eviction policies of {@link Cacheable} annotation, they choose the entry that is dropped from a full cache.
+ */
+public enum EvictionPolicy
+{
+    /**
+     * The least recently read or stored entry is dropped.
+     */
+    LRU,
+
+    /**
+     * The earliest stored entry is dropped, reads don't change the order.
+     */
+    FIFO
+}
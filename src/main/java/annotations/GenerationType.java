@@ -0,0 +1,30 @@
+package annotations;
+
+/**
+ * Id generation strategies of {@link Id} annotation.
+ */
+public enum GenerationType
+{
+    /**
+     * Id is set by application before entity is saved.
+     */
+    ASSIGNED,
+
+    /**
+     * Ids are reserved in blocks from the db sequence table and handed out from memory,
+     * so they are unique across restarts and nodes with one round trip per block.
+     */
+    POOLED,
+
+    /**
+     * Ids are created from clock time, node id and a sequence without any db round trip.
+     * They are roughly ordered by time, node id is set with "orm.datasource.nodeId".
+     */
+    SNOWFLAKE,
+
+    /**
+     * Ids are generated by an auto increment id column of db.
+     * Id column is omitted in inserts and generated ids are read back and set to entities.
+     */
+    IDENTITY
+}
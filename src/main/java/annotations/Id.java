@@ -5,11 +5,26 @@ import java.lang.annotation.*;
 /**
  * This annotation is used as a primary key of table of relevant entity.
  * Annotation is declared top of field.
+ * Ids are generated by pooled strategy unless another strategy is given.
  */
 @Target(ElementType.FIELD)
 @Retention(RetentionPolicy.RUNTIME)
 @Documented
 public @interface Id
 {
+    /**
+     * Id generation strategy of entity.
+     */
+    GenerationType strategy() default GenerationType.POOLED;
 
+    /**
+     * Sequence name of pooled strategy, table name of entity If empty.
+     * Entities that have the same sequence name share one id sequence.
+     */
+    String sequence() default "";
+
+    /**
+     * Number of ids that pooled strategy reserves from db in one round trip.
+     */
+    int allocationSize() default 50;
 }
@@ -0,0 +1,305 @@
+package orm.cache;
+
+import annotations.EvictionPolicy;
+import orm.connection.TransactionManager;
+import orm.metadata.ColumnMetadata;
+import orm.metadata.EntityMetadata;
+import orm.metadata.EntitySnapshots;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Second-level cache of one entity class that is shared by all threads.
+ * Column values of entities are cached instead of entity objects, so every read gives a new entity
+ * that the caller can change without affecting other threads.
+ * Concurrent misses of the same id wait for one loader, so a hot id that is not cached is queried once.
+ * Entries are evicted by size with the configured {@link EvictionPolicy} and expire after time to live.
+ */
+public class EntityCache
+{
+    private final EntityMetadata metadata;
+    private final int maxEntries;
+    private final long timeToLiveNanos;
+    private final LinkedHashMap<Object, Entry> entries;
+    private final Map<Object, CompletableFuture<Object[]>> loads = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadCount = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates cache of entity.
+     *
+     * @param pMetadata    the entity metadata
+     * @param pMaxEntries  the maximum number of cached entities
+     * @param pTimeToLive  the time to live of entries in milliseconds, 0 If entries don't expire
+     * @param pEviction    the eviction policy of a full cache
+     */
+    public EntityCache(EntityMetadata pMetadata, int pMaxEntries, long pTimeToLive, EvictionPolicy pEviction)
+    {
+        if(pMaxEntries <= 0 || pTimeToLive < 0)
+        {
+            throw new IllegalArgumentException("Cache of "+pMetadata.getEntityClass().getName()
+                    +" must have positive max entries and non-negative time to live !");
+        }
+
+        this.metadata = pMetadata;
+        this.maxEntries = pMaxEntries;
+        this.timeToLiveNanos = TimeUnit.MILLISECONDS.toNanos(pTimeToLive);
+        this.entries = new LinkedHashMap<Object, Entry>(16, 0.75f, pEviction == EvictionPolicy.LRU)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest)
+            {
+                if(size() > maxEntries)
+                {
+                    evictions.increment();
+                    return true;
+                }
+
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Gets entity of id from the cache or loads It with loader on a miss.
+     * If another thread is already loading the id, It waits for that load instead of querying again.
+     *
+     * @param pId     the entity id
+     * @param pLoader the loader that queries entity from db
+     * @return        the entity, null If It is not found
+     *
+     * @throws Exception exceptions of loader
+     */
+    public Object get(Object pId, Loader pLoader) throws Exception
+    {
+        Object[] values = lookup(pId);
+
+        if(values != null)
+        {
+            hits.increment();
+            return toEntity(values);
+        }
+
+        misses.increment();
+        CompletableFuture<Object[]> load = new CompletableFuture<>();
+        CompletableFuture<Object[]> runningLoad = loads.putIfAbsent(pId, load);
+
+        if(runningLoad != null)
+        {
+            values = await(runningLoad);
+            return values == null ? null : toEntity(values);
+        }
+
+        try
+        {
+            loadCount.increment();
+            Object entity = pLoader.load();
+            values = entity == null ? null : toValues(entity);
+
+            // an invalidation during the load removes It, so a value that may be stale is not cached,
+            // a value read in a transaction may be uncommitted, so It is not cached either
+            if(values != null && loads.remove(pId, load) && !TransactionManager.isActive())
+            {
+                synchronized (entries)
+                {
+                    entries.put(pId, new Entry(values, System.nanoTime() + timeToLiveNanos));
+                }
+            }
+
+            load.complete(values);
+            return entity;
+        }
+        catch (Exception | Error e)
+        {
+            load.completeExceptionally(e);
+            throw e;
+        }
+        finally
+        {
+            loads.remove(pId, load);
+        }
+    }
+
+    /**
+     * Drops cached entity of id, a running load of id is not cached.
+     *
+     * @param pId the entity id
+     */
+    public void invalidate(Object pId)
+    {
+        loads.remove(pId);
+
+        synchronized (entries)
+        {
+            entries.remove(pId);
+        }
+    }
+
+    /**
+     * Drops all cached entities, running loads are not cached.
+     */
+    public void invalidateAll()
+    {
+        loads.clear();
+
+        synchronized (entries)
+        {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Gets the number of cached entities, expired entities that are not read yet are included.
+     *
+     * @return the cached entity count
+     */
+    public int size()
+    {
+        synchronized (entries)
+        {
+            return entries.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets the number of db loads, concurrent misses of an id that share one load are counted once.
+     *
+     * @return the load count
+     */
+    public long getLoadCount() {
+        return loadCount.sum();
+    }
+
+    /**
+     * Gets the number of entries that were dropped because cache was full or they were expired.
+     *
+     * @return the eviction count
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public void resetStatistics()
+    {
+        hits.reset();
+        misses.reset();
+        loadCount.reset();
+        evictions.reset();
+    }
+
+    private Object[] lookup(Object pId)
+    {
+        synchronized (entries)
+        {
+            Entry entry = entries.get(pId);
+
+            if(entry == null)
+            {
+                return null;
+            }
+
+            if(timeToLiveNanos > 0 && entry.expiresAt - System.nanoTime() <= 0)
+            {
+                entries.remove(pId);
+                evictions.increment();
+                return null;
+            }
+
+            return entry.values;
+        }
+    }
+
+    private static Object[] await(CompletableFuture<Object[]> pLoad) throws Exception
+    {
+        try
+        {
+            return pLoad.get();
+        }
+        catch (ExecutionException e)
+        {
+            if(e.getCause() instanceof Exception)
+            {
+                throw (Exception) e.getCause();
+            }
+
+            throw (Error) e.getCause();
+        }
+    }
+
+    private Object[] toValues(Object pEntity)
+    {
+        List<ColumnMetadata> columns = metadata.getAllColumns();
+        Object[] values = new Object[columns.size()];
+
+        for(int i = 0; i < values.length; i++)
+        {
+            values[i] = copy(columns.get(i).getValue(pEntity));
+        }
+
+        return values;
+    }
+
+    /**
+     * Creates a new entity from cached values, It's snapshot is taken like an entity loaded from db.
+     */
+    private Object toEntity(Object[] pValues) throws InstantiationException
+    {
+        Object entity = metadata.newInstance();
+        List<ColumnMetadata> columns = metadata.getAllColumns();
+
+        for(int i = 0; i < pValues.length; i++)
+        {
+            columns.get(i).setValue(entity, copy(pValues[i]));
+        }
+
+        EntitySnapshots.take(metadata, entity);
+        return entity;
+    }
+
+    private static Object copy(Object pValue)
+    {
+        return pValue instanceof byte[] ? ((byte[]) pValue).clone() : pValue;
+    }
+
+    /**
+     * Loads an entity from db on a cache miss.
+     */
+    @FunctionalInterface
+    public interface Loader
+    {
+        Object load() throws Exception;
+    }
+
+    /**
+     * Cached column values of an entity and It's expiry time.
+     */
+    private static final class Entry
+    {
+        private final Object[] values;
+        private final long expiresAt;
+
+        private Entry(Object[] pValues, long pExpiresAt)
+        {
+            this.values = pValues;
+            this.expiresAt = pExpiresAt;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package orm.cache;
+
+import annotations.Cacheable;
+import orm.connection.TransactionManager;
+import orm.metadata.EntityMetadata;
+import orm.metadata.EntityMetadataRegistry;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of second-level caches of entities that have @Cacheable annotation.
+ * Cache is created from @Cacheable attributes of entity once.
+ * Caches are not read or filled in a transaction, see {@link orm.jparepository.JpaRepository#findById},
+ * so rows that the transaction wrote are not cached before they are committed.
+ * Invalidations in a transaction are repeated when the transaction ends, so an old committed value
+ * that another thread cached while the transaction was running does not stay in the cache.
+ */
+public class EntityCaches
+{
+    private static final Map<Class<?>, Optional<EntityCache>> caches = new ConcurrentHashMap<>();
+
+    /**
+     * Private constructor to prevent object creation of this class.
+     */
+    private EntityCaches()
+    {
+
+    }
+
+    /**
+     * Gets cache of entity class, e.g. to read It's statistics.
+     *
+     * @param pEntityClassObject the entity class object
+     * @return                   the entity cache, null If entity is not @Cacheable
+     */
+    public static EntityCache get(Class<?> pEntityClassObject)
+    {
+        return caches.computeIfAbsent(pEntityClassObject, EntityCaches::createCache).orElse(null);
+    }
+
+    /**
+     * Drops cached entity of given entity object, It is used after the entity is written to db.
+     *
+     * @param pEntity the written entity object
+     */
+    public static void invalidate(Object pEntity)
+    {
+        EntityCache cache = get(pEntity.getClass());
+
+        if(cache != null)
+        {
+            Object id = EntityMetadataRegistry.getMetadata(pEntity.getClass()).getBinder().getId(pEntity);
+
+            if(id != null)
+            {
+                cache.invalidate(id);
+                TransactionManager.afterCompletion(() -> cache.invalidate(id));
+            }
+        }
+    }
+
+    /**
+     * Drops all cached entities of entity class, It is used after bulk writes whose rows are not known.
+     *
+     * @param pEntityClassObject the entity class object
+     */
+    public static void invalidateAll(Class<?> pEntityClassObject)
+    {
+        EntityCache cache = get(pEntityClassObject);
+
+        if(cache != null)
+        {
+            cache.invalidateAll();
+            TransactionManager.afterCompletion(cache::invalidateAll);
+        }
+    }
+
+    /**
+     * Drops all caches, e.g. when data source is configured again.
+     */
+    public static void reset()
+    {
+        caches.clear();
+    }
+
+    private static Optional<EntityCache> createCache(Class<?> pEntityClassObject)
+    {
+        Cacheable cacheable = pEntityClassObject.getAnnotation(Cacheable.class);
+
+        if(cacheable == null)
+        {
+            return Optional.empty();
+        }
+
+        EntityMetadata metadata = EntityMetadataRegistry.getMetadata(pEntityClassObject);
+        return Optional.of(new EntityCache(metadata, cacheable.maxEntries(), cacheable.timeToLive(),
+                cacheable.eviction()));
+    }
+}
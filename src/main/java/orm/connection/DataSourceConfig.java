@@ -0,0 +1,271 @@
+package orm.connection;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * This class holds connection pool settings of the orm.
+ * Settings are read from "orm.properties" file in the classpath If present,
+ * then system properties with the same keys override them.
+ * So JDBC url and credentials are not hard-coded in the orm code.
+ */
+public class DataSourceConfig
+{
+    private static final Logger logger = Logger.getLogger(DataSourceConfig.class.getSimpleName());
+
+    /** The classpath resource that stores the orm settings. */
+    public static final String PROPERTIES_FILE = "orm.properties";
+
+    public static final String URL = "orm.datasource.url";
+    public static final String USERNAME = "orm.datasource.username";
+    public static final String PASSWORD = "orm.datasource.password";
+    public static final String DRIVER_CLASS_NAME = "orm.datasource.driverClassName";
+    public static final String MAXIMUM_POOL_SIZE = "orm.datasource.maximumPoolSize";
+    public static final String MINIMUM_IDLE = "orm.datasource.minimumIdle";
+    public static final String CONNECTION_TIMEOUT = "orm.datasource.connectionTimeout";
+    public static final String IDLE_TIMEOUT = "orm.datasource.idleTimeout";
+    public static final String MAX_LIFETIME = "orm.datasource.maxLifetime";
+    public static final String STATEMENT_CACHE_SIZE = "orm.datasource.statementCacheSize";
+    public static final String BATCH_SIZE = "orm.datasource.batchSize";
+    public static final String REWRITE_BATCHED_STATEMENTS = "orm.datasource.rewriteBatchedStatements";
+    public static final String FETCH_SIZE = "orm.datasource.fetchSize";
+    public static final String DIRTY_CHECKING = "orm.datasource.dirtyChecking";
+    public static final String DIALECT = "orm.datasource.dialect";
+    public static final String NODE_ID = "orm.datasource.nodeId";
+    public static final String TRANSACTION_ISOLATION = "orm.datasource.transactionIsolation";
+
+    private String url;
+    private String username;
+    private String password;
+    private String driverClassName;
+    private int maximumPoolSize = 10;
+    private int minimumIdle = 2;
+    private long connectionTimeout = 30000;
+    private long idleTimeout = 600000;
+    private long maxLifetime = 1800000;
+    private int statementCacheSize = 64;
+    private int batchSize = 500;
+    private boolean rewriteBatchedStatements = true;
+    private int fetchSize = 1000;
+    private boolean dirtyChecking = true;
+    private String dialect;
+    private int nodeId = -1;
+    private String transactionIsolation;
+
+    /**
+     * Loads config from "orm.properties" file and system properties.
+     * System properties have priority over the file.
+     *
+     * @return the loaded data source config
+     */
+    public static DataSourceConfig load()
+    {
+        Properties properties = new Properties();
+
+        try (InputStream stream = DataSourceConfig.class.getClassLoader().getResourceAsStream(PROPERTIES_FILE))
+        {
+            if(stream != null)
+            {
+                properties.load(stream);
+            }
+            else
+            {
+                logger.log(Level.WARNING,PROPERTIES_FILE+" not found in the classpath !" +
+                        " Only system properties will be used.");
+            }
+        }
+        catch (IOException e)
+        {
+            logger.log(Level.WARNING,PROPERTIES_FILE+" could not be read !",e);
+        }
+
+        for(String key : System.getProperties().stringPropertyNames())
+        {
+            if(key.startsWith("orm."))
+            {
+                properties.setProperty(key, System.getProperty(key));
+            }
+        }
+
+        return fromProperties(properties);
+    }
+
+    /**
+     * Creates config from given properties.
+     * Missing pool settings keep their default values.
+     *
+     * @param pProperties the properties that have "orm.datasource.*" keys
+     * @return            the data source config
+     */
+    public static DataSourceConfig fromProperties(Properties pProperties)
+    {
+        DataSourceConfig config = new DataSourceConfig();
+        config.setUrl(pProperties.getProperty(URL));
+        config.setUsername(pProperties.getProperty(USERNAME));
+        config.setPassword(pProperties.getProperty(PASSWORD));
+        config.setDriverClassName(pProperties.getProperty(DRIVER_CLASS_NAME));
+        config.setMaximumPoolSize(Integer.parseInt(pProperties.getProperty(MAXIMUM_POOL_SIZE,
+                String.valueOf(config.getMaximumPoolSize()))));
+        config.setMinimumIdle(Integer.parseInt(pProperties.getProperty(MINIMUM_IDLE,
+                String.valueOf(config.getMinimumIdle()))));
+        config.setConnectionTimeout(Long.parseLong(pProperties.getProperty(CONNECTION_TIMEOUT,
+                String.valueOf(config.getConnectionTimeout()))));
+        config.setIdleTimeout(Long.parseLong(pProperties.getProperty(IDLE_TIMEOUT,
+                String.valueOf(config.getIdleTimeout()))));
+        config.setMaxLifetime(Long.parseLong(pProperties.getProperty(MAX_LIFETIME,
+                String.valueOf(config.getMaxLifetime()))));
+        config.setStatementCacheSize(Integer.parseInt(pProperties.getProperty(STATEMENT_CACHE_SIZE,
+                String.valueOf(config.getStatementCacheSize()))));
+        config.setBatchSize(Integer.parseInt(pProperties.getProperty(BATCH_SIZE,
+                String.valueOf(config.getBatchSize()))));
+        config.setRewriteBatchedStatements(Boolean.parseBoolean(pProperties.getProperty(REWRITE_BATCHED_STATEMENTS,
+                String.valueOf(config.isRewriteBatchedStatements()))));
+        config.setFetchSize(Integer.parseInt(pProperties.getProperty(FETCH_SIZE,
+                String.valueOf(config.getFetchSize()))));
+        config.setDirtyChecking(Boolean.parseBoolean(pProperties.getProperty(DIRTY_CHECKING,
+                String.valueOf(config.isDirtyChecking()))));
+        config.setDialect(pProperties.getProperty(DIALECT));
+        config.setNodeId(Integer.parseInt(pProperties.getProperty(NODE_ID, String.valueOf(config.getNodeId()))));
+        config.setTransactionIsolation(pProperties.getProperty(TRANSACTION_ISOLATION));
+        return config;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public String getDriverClassName() {
+        return driverClassName;
+    }
+
+    public void setDriverClassName(String driverClassName) {
+        this.driverClassName = driverClassName;
+    }
+
+    public int getMaximumPoolSize() {
+        return maximumPoolSize;
+    }
+
+    public void setMaximumPoolSize(int maximumPoolSize) {
+        this.maximumPoolSize = maximumPoolSize;
+    }
+
+    public int getMinimumIdle() {
+        return minimumIdle;
+    }
+
+    public void setMinimumIdle(int minimumIdle) {
+        this.minimumIdle = minimumIdle;
+    }
+
+    public long getConnectionTimeout() {
+        return connectionTimeout;
+    }
+
+    public void setConnectionTimeout(long connectionTimeout) {
+        this.connectionTimeout = connectionTimeout;
+    }
+
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public long getMaxLifetime() {
+        return maxLifetime;
+    }
+
+    public void setMaxLifetime(long maxLifetime) {
+        this.maxLifetime = maxLifetime;
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    public void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public boolean isRewriteBatchedStatements() {
+        return rewriteBatchedStatements;
+    }
+
+    public void setRewriteBatchedStatements(boolean rewriteBatchedStatements) {
+        this.rewriteBatchedStatements = rewriteBatchedStatements;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    public boolean isDirtyChecking() {
+        return dirtyChecking;
+    }
+
+    public void setDirtyChecking(boolean dirtyChecking) {
+        this.dirtyChecking = dirtyChecking;
+    }
+
+    public String getDialect() {
+        return dialect;
+    }
+
+    public void setDialect(String dialect) {
+        this.dialect = dialect;
+    }
+
+    public int getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(int nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public String getTransactionIsolation() {
+        return transactionIsolation;
+    }
+
+    public void setTransactionIsolation(String transactionIsolation) {
+        this.transactionIsolation = transactionIsolation;
+    }
+}
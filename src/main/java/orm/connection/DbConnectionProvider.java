@@ -1,19 +1,46 @@
 package orm.connection;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import orm.cache.EntityCaches;
+import orm.dialect.Dialect;
+import orm.dialect.Dialects;
+import orm.id.IdAllocators;
+import orm.metadata.EntitySnapshots;
+
+import javax.sql.DataSource;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 /**
- * This class provides database connection.
+ * This class provides pooled database connections.
  * For this example project, Mysql db was preferred.
- * Any other db can be used for the test.
+ * Any other db can be used for the test by changing "orm.properties",
+ * e.g. an in-memory H2 db with "jdbc:h2:mem:test;DB_CLOSE_DELAY=-1" url.
+ * Connections are borrowed with {@link #getDbConnection()} and must be
+ * returned to the pool with {@link #releaseConnection(Connection)}.
+ * While a {@link TransactionManager} transaction is active, the connection of
+ * the transaction is given instead and It is kept open on release.
  *
  */
 public class DbConnectionProvider
 {
-    /** The static database connection fields. */
-    private static Connection connection;
+    /** The pooled data source, created lazily on first use. */
+    private static volatile HikariDataSource dataSource;
+
+    /** The pool settings, loaded from "orm.properties" If not configured. */
+    private static DataSourceConfig config;
+
+    /** The sql dialect of configured db, resolved lazily on first use. */
+    private static Dialect dialect;
+
+    /** The sql states of broken connections out of "08" class, e.g. admin shutdown of postgres. */
+    private static final Set<String> BROKEN_CONNECTION_STATES = new HashSet<>(Arrays.asList(
+            "0A000", "57P01", "57P02", "57P03", "01002", "JZ0C0", "JZ0C1"));
 
     /**
      * Private constructor to prevent object creation of this class.
@@ -25,35 +52,258 @@ public class DbConnectionProvider
     }
 
     /**
-     * Gets database connection.
+     * Sets the pool settings. If pool was already created, It is closed
+     * and will be created again with new settings on next borrow.
+     * Reserved id blocks and cached entities are dropped, since they may belong to another db.
+     *
+     * @param pConfig the data source config
+     */
+    public static synchronized void configure(DataSourceConfig pConfig)
+    {
+        shutdown();
+        config = pConfig;
+        dialect = null;
+        IdAllocators.reset();
+        EntityCaches.reset();
+    }
+
+    /**
+     * Borrows a database connection from the pool.
+     * Borrowed connection must be returned with {@link #releaseConnection(Connection)}.
+     *
+     * @return the connection of active transaction of current thread, otherwise a pooled database connection
+     *
+     * @throws SQLException sql exceptions or pool timeout while waiting for a connection
+     */
+    public static Connection getDbConnection() throws SQLException
+    {
+        Connection boundConnection = TransactionManager.getBoundConnection();
+        return boundConnection != null ? boundConnection : getDataSource().getConnection();
+    }
+
+    /**
+     * Returns borrowed connection to the pool.
+     * Connection of active transaction is kept open until transaction ends.
+     *
+     * @param pConnection the borrowed connection, may be null
+     *
+     * @throws SQLException sql exceptions
+     */
+    public static void releaseConnection(Connection pConnection) throws SQLException
+    {
+        if(pConnection != null && pConnection != TransactionManager.getBoundConnection())
+        {
+            pConnection.close();
+        }
+    }
+
+    /**
+     * Evicts borrowed connection from the pool, so It is closed instead of being given to the next borrower.
+     * Statement cache of It's physical connection is dropped.
+     * Connection of an active transaction is kept until the transaction ends, then It is aborted and evicted.
+     *
+     * @param pConnection the borrowed connection, may be null
+     */
+    public static void evictConnection(Connection pConnection)
+    {
+        if(pConnection != null && !TransactionManager.markBroken(pConnection))
+        {
+            evict(pConnection);
+        }
+    }
+
+    /**
+     * Evicts connection from the pool now, It's physical connection is closed by the pool.
+     *
+     * @param pConnection the borrowed connection
+     */
+    static void evict(Connection pConnection)
+    {
+        HikariDataSource current = dataSource;
+
+        if(current != null)
+        {
+            StatementCache.discard(pConnection);
+            current.evictConnection(pConnection);
+        }
+    }
+
+    /**
+     * Evicts borrowed connection If exception shows that the connection is broken, e.g. a lost connection.
+     * Statements of the statement cache run on the physical connection, so the pool does not see
+     * their exceptions and this must be called by the code that executes them.
+     *
+     * @param pConnection the borrowed connection, may be null
+     * @param pException  the exception of a statement of connection
+     * @return            the given exception, so It can be thrown
+     */
+    public static SQLException evictIfBroken(Connection pConnection, SQLException pException)
+    {
+        if(isConnectionError(pException))
+        {
+            evictConnection(pConnection);
+        }
+
+        return pException;
+    }
+
+    /**
+     * Checks whether exception or one of It's chained exceptions has a sql state of a broken connection,
+     * e.g. "08" connection exception class. States are the same as the states that Hikari checks.
+     */
+    private static boolean isConnectionError(SQLException pException)
+    {
+        for(SQLException e = pException; e != null; e = e.getNextException())
+        {
+            String sqlState = e.getSQLState();
+
+            if(sqlState != null && (sqlState.startsWith("08") || BROKEN_CONNECTION_STATES.contains(sqlState)))
+            {
+                return true;
+            }
+
+            if(e.getNextException() == e)
+            {
+                break;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Gets the pooled data source, creates it If not created yet.
+     *
+     * @return the pooled data source
+     */
+    public static DataSource getDataSource()
+    {
+        HikariDataSource current = dataSource;
+
+        if(current == null)
+        {
+            synchronized (DbConnectionProvider.class)
+            {
+                current = dataSource;
+
+                if(current == null)
+                {
+                    current = createDataSource();
+                    dataSource = current;
+                }
+            }
+        }
+
+        return current;
+    }
+
+    /**
+     * Gets the pool settings, loads them from "orm.properties" If not configured.
      *
-     * @return the established database connection
+     * @return the data source config
+     */
+    public static synchronized DataSourceConfig getConfig()
+    {
+        if(config == null)
+        {
+            config = DataSourceConfig.load();
+        }
+
+        return config;
+    }
+
+    /**
+     * Gets the sql dialect of configured db.
      *
-     * @throws SQLException           sql syntax or other sql exceptions
-     * @throws ClassNotFoundException It is thrown when relevant class not found
+     * @return the dialect
      */
-    public static Connection getDbConnection() throws SQLException, ClassNotFoundException
+    public static synchronized Dialect getDialect()
     {
-        if (connection == null)
+        if(dialect == null)
         {
-            connection = connectToMysqlServer();
+            dialect = Dialects.resolve(getConfig());
         }
 
-        return connection;
+        return dialect;
+    }
+
+    /**
+     * Gets the number of rows that are sent to db in one JDBC batch.
+     *
+     * @return the batch size, at least 1
+     */
+    public static int getBatchSize()
+    {
+        return Math.max(1, getConfig().getBatchSize());
     }
 
     /**
-     * Connects to database using JDBC driver.
+     * Gets the fetch size of streamed queries, It is decided by the dialect.
      *
-     * @return the connection of Mysql Db.
+     * @return the fetch size, 0 lets the driver decide
+     */
+    public static int getFetchSize()
+    {
+        return getDialect().getStreamingFetchSize(getConfig());
+    }
+
+    /**
+     * Closes the pool and all of It's connections.
+     */
+    public static synchronized void shutdown()
+    {
+        if(dataSource != null)
+        {
+            dataSource.close();
+            dataSource = null;
+        }
+    }
+
+    /**
+     * Creates Hikari connection pool using data source config.
      *
-     * @throws ClassNotFoundException It is thrown when relevant class not found
-     * @throws SQLException           sql syntax or other sql exceptions
+     * @return the pooled data source
      */
-    private static Connection  connectToMysqlServer() throws ClassNotFoundException, SQLException
+    private static HikariDataSource createDataSource()
     {
-        Class.forName("com.mysql.jdbc.Driver");
-        return DriverManager.getConnection("jdbc:mysql://localhost:3306/development","root","root");
+        DataSourceConfig config = getConfig();
+
+        if(config.getUrl() == null)
+        {
+            throw new IllegalStateException("JDBC url is not configured ! Set "+DataSourceConfig.URL
+                    +" in "+DataSourceConfig.PROPERTIES_FILE+" or as a system property.");
+        }
+
+        HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setPoolName("customorm-pool");
+        hikariConfig.setJdbcUrl(config.getUrl());
+        hikariConfig.setUsername(config.getUsername());
+        hikariConfig.setPassword(config.getPassword());
+
+        Dialect dialect = getDialect();
+        String driverClassName = config.getDriverClassName();
+        hikariConfig.setDriverClassName(driverClassName != null && !driverClassName.trim().isEmpty()
+                ? driverClassName.trim() : dialect.getDefaultDriverClassName());
+
+        hikariConfig.setMaximumPoolSize(config.getMaximumPoolSize());
+        hikariConfig.setMinimumIdle(config.getMinimumIdle());
+        hikariConfig.setConnectionTimeout(config.getConnectionTimeout());
+        hikariConfig.setIdleTimeout(config.getIdleTimeout());
+        hikariConfig.setMaxLifetime(config.getMaxLifetime());
+
+        if(config.getTransactionIsolation() != null && !config.getTransactionIsolation().trim().isEmpty())
+        {
+            hikariConfig.setTransactionIsolation(config.getTransactionIsolation().trim());
+        }
+
+        for(Map.Entry<String, String> property : dialect.getDataSourceProperties(config).entrySet())
+        {
+            hikariConfig.addDataSourceProperty(property.getKey(), property.getValue());
+        }
+
+        StatementCache.setMaxSize(config.getStatementCacheSize());
+        EntitySnapshots.setEnabled(config.isDirtyChecking());
+        return new HikariDataSource(hikariConfig);
     }
 
 }
@@ -0,0 +1,299 @@
+package orm.connection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * LRU cache of prepared statements per physical db connection.
+ * Statements are keyed by sql text, so the same query is parsed only once per connection.
+ * Pooled connections are unwrapped to the physical connection, so cached statements
+ * survive returning the connection to the pool and are reused on next borrow.
+ * Statements must be given back with {@link #release(PreparedStatement)} instead of closing them.
+ * A statement is checked out until It is released, an evicted statement that is checked out, e.g. by an
+ * open result set of a nested query, is closed on release instead of under It's user.
+ * If a cached statement is asked again while It is checked out, an uncached statement is prepared.
+ * If cache size is 0, statements are not cached and release closes them.
+ * <p>
+ * Cached statements run on the physical connection, so Hikari doesn't see them. It can't close them when
+ * the connection is returned, which is what lets them be reused. The trade-off is that Hikari doesn't see
+ * their exceptions either, so code that executes them must pass sql exceptions to
+ * {@link DbConnectionProvider#evictIfBroken(Connection, java.sql.SQLException)}, or broken connections
+ * go back to the pool. Hikari also doesn't know that the connection has uncommitted changes, so It can't
+ * roll them back on close, {@link TransactionManager} rolls back every transaction that is not committed.
+ * Caches of connections that the pool closed, e.g. at max lifetime, are dropped on the next release.
+ */
+public class StatementCache
+{
+    private static final Logger logger = Logger.getLogger(StatementCache.class.getSimpleName());
+
+    /** The statement caches of physical connections. */
+    private static final Map<Connection, StatementCache> caches = new ConcurrentHashMap<>();
+
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+    private static final LongAdder evictions = new LongAdder();
+
+    /** The key prefix of statements that return generated keys, It can not be the start of a sql query. */
+    private static final String GENERATED_KEYS_PREFIX = "#keys ";
+
+    /** The maximum cached statement count per connection. */
+    private static volatile int maxSize = 64;
+
+    private final LinkedHashMap<String, PreparedStatement> statements;
+    private final Set<PreparedStatement> cachedStatements = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<PreparedStatement> checkedOutStatements = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Creates access ordered statement map that evicts the eldest statement when It is full.
+     * Evicted statement is closed now If It is idle, otherwise when It is released.
+     */
+    private StatementCache()
+    {
+        this.statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest)
+            {
+                if(size() > maxSize)
+                {
+                    cachedStatements.remove(eldest.getValue());
+
+                    if(!checkedOutStatements.contains(eldest.getValue()))
+                    {
+                        closeQuietly(eldest.getValue());
+                    }
+
+                    evictions.increment();
+                    return true;
+                }
+
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Gets prepared statement of given sql from the cache of connection.
+     * Statement is prepared and cached If It is not in the cache.
+     *
+     * @param pConnection the borrowed db connection
+     * @param sql         the sql query in String form
+     * @return            the prepared statement, parameters are cleared
+     *
+     * @throws SQLException sql exceptions
+     */
+    public static PreparedStatement prepare(Connection pConnection, String sql) throws SQLException
+    {
+        return prepare(pConnection, sql, false);
+    }
+
+    /**
+     * Gets prepared statement of given sql from the cache of connection.
+     * Statements that return generated keys are cached separately from the ones that don't.
+     *
+     * @param pConnection           the borrowed db connection
+     * @param sql                   the sql query in String form
+     * @param pReturnGeneratedKeys  true, If statement returns db generated keys
+     * @return                      the prepared statement, parameters are cleared
+     *
+     * @throws SQLException sql exceptions
+     */
+    public static PreparedStatement prepare(Connection pConnection, String sql, boolean pReturnGeneratedKeys)
+            throws SQLException
+    {
+        if(maxSize <= 0)
+        {
+            misses.increment();
+            return pReturnGeneratedKeys ? pConnection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                    : pConnection.prepareStatement(sql);
+        }
+
+        Connection physicalConnection = pConnection.unwrap(Connection.class);
+        StatementCache cache = caches.get(physicalConnection);
+
+        if(cache == null)
+        {
+            cache = caches.computeIfAbsent(physicalConnection, connection -> new StatementCache());
+        }
+
+        return cache.getOrPrepare(physicalConnection, sql, pReturnGeneratedKeys);
+    }
+
+    /**
+     * Gives statement back to the cache after execution.
+     * Cached statements are kept open with cleared parameters and batch, others are closed.
+     *
+     * @param pStatement the statement that is taken from {@link #prepare(Connection, String)}, may be null
+     *
+     * @throws SQLException sql exceptions
+     */
+    public static void release(PreparedStatement pStatement) throws SQLException
+    {
+        if(pStatement == null || pStatement.isClosed())
+        {
+            return;
+        }
+
+        StatementCache cache = caches.get(pStatement.getConnection());
+
+        if(cache != null && cache.checkIn(pStatement))
+        {
+            pStatement.clearParameters();
+            pStatement.clearBatch();
+        }
+        else
+        {
+            pStatement.close();
+        }
+
+        purgeClosedConnections();
+    }
+
+    /**
+     * Drops cache of connection, e.g. because connection is evicted from the pool.
+     * Statements are closed by the driver when connection is closed, checked out statements are closed on release.
+     *
+     * @param pConnection the borrowed db connection
+     */
+    static void discard(Connection pConnection)
+    {
+        try
+        {
+            caches.remove(pConnection.unwrap(Connection.class));
+        }
+        catch (SQLException e)
+        {
+            logger.log(Level.WARNING,"Statement cache of connection could not be dropped !",e);
+        }
+    }
+
+    /**
+     * Sets maximum cached statement count per connection.
+     * Already cached statements are kept until they are evicted.
+     *
+     * @param pMaxSize the cache size, 0 disables caching
+     */
+    public static void setMaxSize(int pMaxSize)
+    {
+        maxSize = pMaxSize;
+    }
+
+    public static int getMaxSize()
+    {
+        return maxSize;
+    }
+
+    public static long getHitCount()
+    {
+        return hits.sum();
+    }
+
+    public static long getMissCount()
+    {
+        return misses.sum();
+    }
+
+    public static long getEvictionCount()
+    {
+        return evictions.sum();
+    }
+
+    /**
+     * Resets hit, miss and eviction counters.
+     */
+    public static void resetStatistics()
+    {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+    }
+
+    private synchronized PreparedStatement getOrPrepare(Connection pPhysicalConnection, String sql,
+                                                        boolean pReturnGeneratedKeys) throws SQLException
+    {
+        String key = pReturnGeneratedKeys ? GENERATED_KEYS_PREFIX + sql : sql;
+        PreparedStatement statement = statements.get(key);
+
+        if(statement != null && !statement.isClosed())
+        {
+            if(checkedOutStatements.add(statement))
+            {
+                hits.increment();
+                return statement;
+            }
+
+            // cached statement is in use by an outer operation, so this use gets It's own statement
+            misses.increment();
+            return pReturnGeneratedKeys ? pPhysicalConnection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                    : pPhysicalConnection.prepareStatement(sql);
+        }
+
+        misses.increment();
+        statement = pReturnGeneratedKeys ? pPhysicalConnection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                : pPhysicalConnection.prepareStatement(sql);
+        cachedStatements.add(statement);
+        checkedOutStatements.add(statement);
+        statements.put(key, statement);
+        return statement;
+    }
+
+    /**
+     * Marks statement as idle again.
+     *
+     * @param pStatement the released statement
+     * @return           true, If statement is still cached, false If It was evicted or never cached
+     */
+    private synchronized boolean checkIn(PreparedStatement pStatement)
+    {
+        checkedOutStatements.remove(pStatement);
+        return cachedStatements.contains(pStatement);
+    }
+
+    /**
+     * Removes caches of connections that were closed by the pool.
+     * Statements of closed connections are closed by the driver.
+     */
+    private static void purgeClosedConnections()
+    {
+        Iterator<Connection> iterator = caches.keySet().iterator();
+
+        while (iterator.hasNext())
+        {
+            try
+            {
+                if(iterator.next().isClosed())
+                {
+                    iterator.remove();
+                }
+            }
+            catch (SQLException e)
+            {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement pStatement)
+    {
+        try
+        {
+            pStatement.close();
+        }
+        catch (SQLException e)
+        {
+            logger.log(Level.WARNING,"Evicted statement could not be closed !",e);
+        }
+    }
+}
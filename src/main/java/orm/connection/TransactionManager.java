@@ -0,0 +1,549 @@
+package orm.connection;
+
+import orm.exception.EntityOperationException;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Programmatic transactions that bind one pooled connection to the current thread.
+ * While a transaction is active, {@link DbConnectionProvider#getDbConnection()} gives the bound connection
+ * and {@link DbConnectionProvider#releaseConnection(Connection)} keeps It open, so repository operations
+ * of the thread run in the transaction without any change and are committed with one commit.
+ * Transactions are either run with {@link #inTransaction(TransactionCallback)} or
+ * started with {@link #begin()} and ended with {@link #commit()} or {@link #rollback()} in a finally block.
+ * Entity streams of Mysql keep the connection busy until they are closed,
+ * so other operations of the same transaction must wait until the stream is closed.
+ */
+public class TransactionManager
+{
+    private static final Logger logger = Logger.getLogger(TransactionManager.class.getSimpleName());
+
+    /** The isolation level value that keeps the isolation level of the pool. */
+    public static final int DEFAULT_ISOLATION = -1;
+
+    private static final ThreadLocal<Transaction> currentTransaction = new ThreadLocal<>();
+
+    /**
+     * Private constructor to prevent object creation of this class.
+     */
+    private TransactionManager()
+    {
+
+    }
+
+    /**
+     * Starts a read-write transaction with isolation level of the pool.
+     *
+     * @throws SQLException sql exceptions
+     * @throws IllegalStateException Thrown If a transaction is already active in current thread.
+     */
+    public static void begin() throws SQLException
+    {
+        begin(DEFAULT_ISOLATION, false);
+    }
+
+    /**
+     * Starts a transaction and binds It's connection to current thread.
+     *
+     * @param pIsolationLevel the {@link Connection} TRANSACTION_* isolation level or {@link #DEFAULT_ISOLATION}
+     * @param pReadOnly       true, If transaction only reads, so db and driver can optimize It
+     *
+     * @throws SQLException sql exceptions
+     * @throws IllegalStateException Thrown If a transaction is already active in current thread.
+     */
+    public static void begin(int pIsolationLevel, boolean pReadOnly) throws SQLException
+    {
+        if(currentTransaction.get() != null)
+        {
+            throw new IllegalStateException("A transaction is already active in this thread !");
+        }
+
+        Connection connection = DbConnectionProvider.getDataSource().getConnection();
+
+        try
+        {
+            currentTransaction.set(new Transaction(connection, pIsolationLevel, pReadOnly));
+        }
+        catch (SQLException e)
+        {
+            connection.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Commits transaction of current thread and returns It's connection to the pool.
+     * If transaction was marked rollback-only, It is rolled back instead.
+     *
+     * @throws SQLException sql exceptions, transaction is ended anyway
+     * @throws IllegalStateException Thrown If no transaction is active or transaction was rolled back.
+     */
+    public static void commit() throws SQLException
+    {
+        Transaction transaction = requireTransaction();
+        boolean committed = false;
+        SQLException failure = null;
+
+        try
+        {
+            if(!transaction.rollbackOnly)
+            {
+                transaction.connection.commit();
+                committed = true;
+            }
+        }
+        catch (SQLException e)
+        {
+            failure = e;
+        }
+        finally
+        {
+            end(transaction, committed, failure);
+        }
+
+        if(!committed)
+        {
+            throw new IllegalStateException("Transaction was marked rollback-only, It is rolled back !");
+        }
+    }
+
+    /**
+     * Rolls back transaction of current thread and returns It's connection to the pool.
+     *
+     * @throws SQLException sql exceptions, transaction is ended anyway
+     * @throws IllegalStateException Thrown If no transaction is active.
+     */
+    public static void rollback() throws SQLException
+    {
+        end(requireTransaction(), false, null);
+    }
+
+    /**
+     * Runs callback in a read-write transaction with isolation level of the pool.
+     *
+     * @param pCallback the transaction work
+     * @param <R>       the result type
+     * @return          the result of callback
+     *
+     * @throws EntityOperationException Thrown If callback throws a checked exception or transaction fails.
+     */
+    public static <R> R inTransaction(TransactionCallback<R> pCallback) throws EntityOperationException
+    {
+        return inTransaction(DEFAULT_ISOLATION, false, pCallback);
+    }
+
+    /**
+     * Runs action in a read-write transaction with isolation level of the pool.
+     *
+     * @param pAction the transaction work
+     *
+     * @throws EntityOperationException Thrown If action throws a checked exception or transaction fails.
+     */
+    public static void inTransaction(TransactionAction pAction) throws EntityOperationException
+    {
+        inTransaction(DEFAULT_ISOLATION, false, () -> {
+            pAction.execute();
+            return null;
+        });
+    }
+
+    /**
+     * Runs callback in a transaction, commits It If callback returns and rolls It back If callback throws.
+     * If a transaction is already active, callback joins It and a failure marks It rollback-only.
+     *
+     * @param pIsolationLevel the {@link Connection} TRANSACTION_* isolation level or {@link #DEFAULT_ISOLATION}
+     * @param pReadOnly       true, If transaction only reads
+     * @param pCallback       the transaction work
+     * @param <R>             the result type
+     * @return                the result of callback
+     *
+     * @throws EntityOperationException Thrown If callback throws a checked exception or transaction fails.
+     *                                  Unchecked exceptions of callback are thrown as they are.
+     */
+    public static <R> R inTransaction(int pIsolationLevel, boolean pReadOnly, TransactionCallback<R> pCallback)
+            throws EntityOperationException
+    {
+        Transaction activeTransaction = currentTransaction.get();
+
+        if(activeTransaction != null)
+        {
+            try
+            {
+                return pCallback.execute();
+            }
+            catch (Exception | Error e)
+            {
+                activeTransaction.rollbackOnly = true;
+                throw rethrow(e);
+            }
+        }
+
+        try
+        {
+            begin(pIsolationLevel, pReadOnly);
+        }
+        catch (SQLException e)
+        {
+            throw new EntityOperationException("Transaction could not be started !",e);
+        }
+
+        R result;
+
+        try
+        {
+            result = pCallback.execute();
+        }
+        catch (Exception | Error e)
+        {
+            try
+            {
+                rollback();
+            }
+            catch (SQLException rollbackException)
+            {
+                e.addSuppressed(rollbackException);
+            }
+
+            throw rethrow(e);
+        }
+
+        try
+        {
+            commit();
+        }
+        catch (SQLException e)
+        {
+            throw new EntityOperationException("Transaction could not be committed !",e);
+        }
+
+        return result;
+    }
+
+    /**
+     * Checks whether a transaction is active in current thread.
+     *
+     * @return true, If a transaction is active
+     */
+    public static boolean isActive()
+    {
+        return currentTransaction.get() != null;
+    }
+
+    /**
+     * Marks transaction of current thread, so It is rolled back instead of committed.
+     *
+     * @throws IllegalStateException Thrown If no transaction is active.
+     */
+    public static void setRollbackOnly()
+    {
+        requireTransaction().rollbackOnly = true;
+    }
+
+    /**
+     * Registers an action that runs after transaction of current thread is rolled back,
+     * e.g. to drop in-memory state of entities that was changed in the transaction.
+     * Nothing is registered If no transaction is active.
+     *
+     * @param pAction the rollback action
+     */
+    public static void afterRollback(Runnable pAction)
+    {
+        afterRollback(pAction, pAction);
+    }
+
+    /**
+     * Registers a rollback action once per transaction, actions of a key that is already registered
+     * in transaction of current thread are ignored. Nothing is registered If no transaction is active.
+     *
+     * @param pKey    the key of action, e.g. the class that registers It
+     * @param pAction the rollback action
+     */
+    public static void afterRollback(Object pKey, Runnable pAction)
+    {
+        Transaction transaction = currentTransaction.get();
+
+        if(transaction != null)
+        {
+            transaction.rollbackActions.putIfAbsent(pKey, pAction);
+        }
+    }
+
+    /**
+     * Gets an object that identifies transaction of current thread, e.g. to tag state that was created in It.
+     * Key does not refer to the connection, so It can be kept after transaction ends.
+     *
+     * @return the transaction key, null If no transaction is active
+     */
+    public static Object getTransactionKey()
+    {
+        Transaction transaction = currentTransaction.get();
+        return transaction == null ? null : transaction.key;
+    }
+
+    /**
+     * Registers an action that runs after transaction of current thread is committed or rolled back,
+     * e.g. to drop cached state that other threads may have read before the transaction ended.
+     * Nothing is registered If no transaction is active.
+     *
+     * @param pAction the completion action
+     */
+    public static void afterCompletion(Runnable pAction)
+    {
+        Transaction transaction = currentTransaction.get();
+
+        if(transaction != null)
+        {
+            transaction.completionActions.add(pAction);
+        }
+    }
+
+    /**
+     * Gets connection of transaction of current thread.
+     *
+     * @return the bound connection, null If no transaction is active
+     */
+    static Connection getBoundConnection()
+    {
+        Transaction transaction = currentTransaction.get();
+        return transaction == null ? null : transaction.connection;
+    }
+
+    private static Transaction requireTransaction()
+    {
+        Transaction transaction = currentTransaction.get();
+
+        if(transaction == null)
+        {
+            throw new IllegalStateException("No transaction is active in this thread !");
+        }
+
+        return transaction;
+    }
+
+    /**
+     * Marks transaction of current thread as broken If given connection is It's connection,
+     * so the connection is aborted and evicted from the pool when transaction ends.
+     *
+     * @param pConnection the broken connection
+     * @return            true, If connection belongs to transaction of current thread
+     */
+    static boolean markBroken(Connection pConnection)
+    {
+        Transaction transaction = currentTransaction.get();
+
+        if(transaction != null && transaction.connection == pConnection)
+        {
+            transaction.broken = true;
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Unbinds transaction, rolls It back If It was not committed, restores connection settings,
+     * returns connection to the pool and runs rollback actions If transaction was not committed,
+     * then completion actions.
+     * Transaction is rolled back before auto-commit is restored, since restoring It commits open changes.
+     * If rollback fails or connection is broken, connection is aborted and evicted from the pool instead.
+     *
+     * @param pTransaction the ending transaction
+     * @param pCommitted   true, If transaction was committed
+     * @param pFailure     the exception of commit, may be null
+     *
+     * @throws SQLException the commit exception or rollback exception, rollback exception is suppressed
+     *                      by the commit exception
+     */
+    private static void end(Transaction pTransaction, boolean pCommitted, SQLException pFailure) throws SQLException
+    {
+        currentTransaction.remove();
+        SQLException failure = pFailure;
+        boolean aborted = false;
+
+        try
+        {
+            boolean rolledBack = pCommitted;
+
+            if(!pCommitted)
+            {
+                try
+                {
+                    pTransaction.connection.rollback();
+                    rolledBack = true;
+                }
+                catch (SQLException e)
+                {
+                    if(failure == null)
+                    {
+                        failure = e;
+                    }
+                    else
+                    {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+
+            if(rolledBack && !pTransaction.broken)
+            {
+                pTransaction.restore();
+            }
+            else
+            {
+                aborted = true;
+                abort(pTransaction.connection);
+            }
+        }
+        finally
+        {
+            if(!aborted)
+            {
+                pTransaction.connection.close();
+            }
+
+            if(!pCommitted)
+            {
+                for(Runnable action : pTransaction.rollbackActions.values())
+                {
+                    action.run();
+                }
+            }
+
+            for(Runnable action : pTransaction.completionActions)
+            {
+                action.run();
+            }
+        }
+
+        if(failure != null)
+        {
+            throw failure;
+        }
+    }
+
+    /**
+     * Closes physical connection without committing and evicts It from the pool,
+     * so open changes of a transaction that could not be rolled back are never committed.
+     * Pooled connection is not closed, since the pool restores auto-commit on close.
+     */
+    private static void abort(Connection pConnection)
+    {
+        try
+        {
+            Connection physicalConnection = pConnection.unwrap(Connection.class);
+
+            try
+            {
+                physicalConnection.abort(Runnable::run);
+            }
+            catch (SQLException e)
+            {
+                // drivers without abort roll back open transaction on close
+                physicalConnection.close();
+            }
+        }
+        catch (SQLException e)
+        {
+            logger.log(Level.WARNING,"Connection of failed transaction could not be aborted !",e);
+        }
+        finally
+        {
+            DbConnectionProvider.evict(pConnection);
+        }
+    }
+
+    private static EntityOperationException rethrow(Throwable pThrowable)
+    {
+        if(pThrowable instanceof RuntimeException)
+        {
+            throw (RuntimeException) pThrowable;
+        }
+
+        if(pThrowable instanceof Error)
+        {
+            throw (Error) pThrowable;
+        }
+
+        if(pThrowable instanceof EntityOperationException)
+        {
+            return (EntityOperationException) pThrowable;
+        }
+
+        return new EntityOperationException("Transaction was rolled back !",(Exception) pThrowable);
+    }
+
+    /**
+     * Work of a transaction that returns a result.
+     *
+     * @param <R> the result type
+     */
+    @FunctionalInterface
+    public interface TransactionCallback<R>
+    {
+        R execute() throws Exception;
+    }
+
+    /**
+     * Work of a transaction without a result.
+     */
+    @FunctionalInterface
+    public interface TransactionAction
+    {
+        void execute() throws Exception;
+    }
+
+    /**
+     * Connection of an active transaction and It's settings before the transaction.
+     */
+    private static final class Transaction
+    {
+        private final Connection connection;
+        private final int previousIsolationLevel;
+        private final boolean previousReadOnly;
+        private final Object key = new Object();
+        private final Map<Object, Runnable> rollbackActions = new LinkedHashMap<>();
+        private final List<Runnable> completionActions = new ArrayList<>();
+        private boolean rollbackOnly;
+        private boolean broken;
+
+        private Transaction(Connection pConnection, int pIsolationLevel, boolean pReadOnly) throws SQLException
+        {
+            this.connection = pConnection;
+            this.previousIsolationLevel = pConnection.getTransactionIsolation();
+            this.previousReadOnly = pConnection.isReadOnly();
+
+            if(pIsolationLevel != DEFAULT_ISOLATION)
+            {
+                pConnection.setTransactionIsolation(pIsolationLevel);
+            }
+
+            if(pReadOnly)
+            {
+                pConnection.setReadOnly(true);
+            }
+
+            pConnection.setAutoCommit(false);
+        }
+
+        private void restore()
+        {
+            try
+            {
+                connection.setAutoCommit(true);
+                connection.setReadOnly(previousReadOnly);
+                connection.setTransactionIsolation(previousIsolationLevel);
+            }
+            catch (SQLException e)
+            {
+                logger.log(Level.WARNING,"Connection settings could not be restored after transaction !",e);
+            }
+        }
+    }
+}
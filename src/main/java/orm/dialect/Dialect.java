@@ -0,0 +1,160 @@
+package orm.dialect;
+
+import orm.connection.DataSourceConfig;
+import orm.id.SequenceTable;
+import orm.metadata.EntityMetadata;
+import orm.types.TypeHandler;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Database specific parts of the orm.
+ * Entity queries are plain sql that Mysql and H2 both understand,
+ * so a dialect only decides column types, upsert syntax,
+ * driver defaults, batch/fetch settings and id sequence increments of It's database.
+ * Dialect of the data source is resolved by {@link Dialects#resolve(DataSourceConfig)}.
+ */
+public interface Dialect
+{
+    /**
+     * Gets unique name of dialect, It is the value of "orm.datasource.dialect" setting.
+     *
+     * @return the dialect name
+     */
+    String getName();
+
+    /**
+     * Checks whether given JDBC url belongs to the database of this dialect.
+     *
+     * @param pUrl the JDBC url
+     * @return     true, If dialect can be used for url
+     */
+    boolean supportsUrl(String pUrl);
+
+    /**
+     * Gets JDBC driver class that is used when driver class name is not configured.
+     *
+     * @return the driver class name
+     */
+    String getDefaultDriverClassName();
+
+    /**
+     * Gets column type of create table query.
+     *
+     * @param pTypeHandler the type handler of field
+     * @return             the sql column type, type of handler by default
+     */
+    default String getColumnType(TypeHandler<?> pTypeHandler)
+    {
+        return pTypeHandler.getSqlType();
+    }
+
+    /**
+     * Gets column type of id column whose values are generated by db.
+     *
+     * @param pTypeHandler the type handler of id field
+     * @return             the sql column type with standard "generated by default as identity" definition
+     */
+    default String getIdentityColumnType(TypeHandler<?> pTypeHandler)
+    {
+        return getColumnType(pTypeHandler) + " generated by default as identity";
+    }
+
+    /**
+     * Checks whether driver returns generated keys of all rows of a batch.
+     * If not, rows of entities that have db generated ids are inserted one by one.
+     *
+     * @return true by default
+     */
+    default boolean supportsBatchGeneratedKeys()
+    {
+        return true;
+    }
+
+    /**
+     * Creates query that inserts entity or updates all of It's columns If It's id exists.
+     * Parameters must be same as the insert query of entity.
+     * Queries are cached by {@link EntityMetadata#getUpsertSql(Dialect)}.
+     *
+     * @param pMetadata the entity metadata that has an id column
+     * @return          the upsert query
+     */
+    String createUpsertSql(EntityMetadata pMetadata);
+
+    /**
+     * Gets driver properties of pooled data source, e.g. batch rewriting of driver.
+     *
+     * @param pConfig the data source config
+     * @return        the driver properties, empty by default
+     */
+    default Map<String, String> getDataSourceProperties(DataSourceConfig pConfig)
+    {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Gets fetch size of streamed queries.
+     *
+     * @param pConfig the data source config
+     * @return        the fetch size, 0 lets the driver decide
+     */
+    default int getStreamingFetchSize(DataSourceConfig pConfig)
+    {
+        return Math.max(0, pConfig.getFetchSize());
+    }
+
+    /**
+     * Increments value of a sequence row of {@link SequenceTable} and returns the new value.
+     * Default implementation updates and selects the row in a transaction,
+     * dialects override It to do both in one round trip.
+     *
+     * @param pConnection   the auto-commit connection that is used only for the sequence
+     * @param pSequenceName the sequence name
+     * @param pIncrement    the increment
+     * @return              the incremented value, null If sequence row does not exist
+     *
+     * @throws SQLException sql exceptions
+     */
+    default Long incrementSequence(Connection pConnection, String pSequenceName, int pIncrement) throws SQLException
+    {
+        pConnection.setAutoCommit(false);
+
+        try (PreparedStatement update = pConnection.prepareStatement("UPDATE " + SequenceTable.TABLE_NAME + " SET "
+                + SequenceTable.VALUE_COLUMN + "=" + SequenceTable.VALUE_COLUMN + "+? WHERE "
+                + SequenceTable.NAME_COLUMN + "=?");
+             PreparedStatement select = pConnection.prepareStatement("SELECT " + SequenceTable.VALUE_COLUMN
+                + " FROM " + SequenceTable.TABLE_NAME + " WHERE " + SequenceTable.NAME_COLUMN + "=?"))
+        {
+            update.setInt(1, pIncrement);
+            update.setString(2, pSequenceName);
+            Long value = null;
+
+            if(update.executeUpdate() > 0)
+            {
+                select.setString(1, pSequenceName);
+
+                try (ResultSet resultSet = select.executeQuery())
+                {
+                    value = resultSet.next() ? resultSet.getLong(1) : null;
+                }
+            }
+
+            pConnection.commit();
+            return value;
+        }
+        catch (SQLException e)
+        {
+            pConnection.rollback();
+            throw e;
+        }
+        finally
+        {
+            pConnection.setAutoCommit(true);
+        }
+    }
+}
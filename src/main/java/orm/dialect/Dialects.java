@@ -0,0 +1,93 @@
+package orm.dialect;
+
+import orm.connection.DataSourceConfig;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Registry of sql dialects.
+ * Mysql and H2 dialects are registered by default, other dialects can be registered
+ * or given with their class name in "orm.datasource.dialect" setting.
+ */
+public class Dialects
+{
+    private static final List<Dialect> dialects = new CopyOnWriteArrayList<>();
+
+    static
+    {
+        register(new MySqlDialect());
+        register(new H2Dialect());
+    }
+
+    /**
+     * Private constructor to prevent object creation of this class.
+     */
+    private Dialects()
+    {
+
+    }
+
+    /**
+     * Registers dialect, It is checked before previously registered dialects.
+     *
+     * @param pDialect the dialect
+     */
+    public static void register(Dialect pDialect)
+    {
+        dialects.add(0, pDialect);
+    }
+
+    /**
+     * Resolves dialect of data source.
+     * Configured dialect name or class name is used If present, otherwise dialect is found by JDBC url.
+     * Mysql dialect is used If no dialect supports the url.
+     *
+     * @param pConfig the data source config
+     * @return        the dialect
+     *
+     * @throws IllegalArgumentException Thrown If configured dialect is unknown.
+     */
+    public static Dialect resolve(DataSourceConfig pConfig)
+    {
+        String name = pConfig.getDialect();
+
+        if(name != null && !name.trim().isEmpty())
+        {
+            return find(name.trim());
+        }
+
+        String url = pConfig.getUrl();
+
+        for(Dialect dialect : dialects)
+        {
+            if(url != null && dialect.supportsUrl(url))
+            {
+                return dialect;
+            }
+        }
+
+        return find(MySqlDialect.NAME);
+    }
+
+    private static Dialect find(String pName)
+    {
+        for(Dialect dialect : dialects)
+        {
+            if(dialect.getName().equalsIgnoreCase(pName) || dialect.getClass().getName().equals(pName))
+            {
+                return dialect;
+            }
+        }
+
+        try
+        {
+            return (Dialect) Class.forName(pName).getDeclaredConstructor().newInstance();
+        }
+        catch (ReflectiveOperationException | ClassCastException e)
+        {
+            throw new IllegalArgumentException("Unknown sql dialect "+pName+" ! Use "
+                    +MySqlDialect.NAME+", "+H2Dialect.NAME+" or a "+Dialect.class.getName()+" class name.", e);
+        }
+    }
+}
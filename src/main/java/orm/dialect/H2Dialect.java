@@ -0,0 +1,71 @@
+package orm.dialect;
+
+import orm.id.SequenceTable;
+import orm.metadata.EntityMetadata;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Dialect of embedded or in-memory H2 databases, e.g. "jdbc:h2:mem:test;DB_CLOSE_DELAY=-1".
+ * It lets the orm run in-process for fast tests and reproducible benchmarks without a database server.
+ * Upserts are "MERGE INTO ... KEY(id)" and id sequences are incremented with a "FINAL TABLE" query.
+ */
+public class H2Dialect implements Dialect
+{
+    public static final String NAME = "h2";
+
+    @Override
+    public String getName()
+    {
+        return NAME;
+    }
+
+    @Override
+    public boolean supportsUrl(String pUrl)
+    {
+        return pUrl.startsWith("jdbc:h2:");
+    }
+
+    @Override
+    public String getDefaultDriverClassName()
+    {
+        return "org.h2.Driver";
+    }
+
+    /**
+     * Creates merge query from insert query by replacing "INSERT" with "MERGE" and adding key column.
+     */
+    @Override
+    public String createUpsertSql(EntityMetadata pMetadata)
+    {
+        String insertSql = pMetadata.getInsertSql();
+        int valuesIndex = insertSql.indexOf(" VALUES");
+        return "MERGE " + insertSql.substring("INSERT".length(), valuesIndex).trim()
+                + " KEY(" + pMetadata.getIdColumnName() + ")" + insertSql.substring(valuesIndex);
+    }
+
+    /**
+     * Increments sequence and selects the new value in one statement with "SELECT ... FROM FINAL TABLE(UPDATE ...)".
+     */
+    @Override
+    public Long incrementSequence(Connection pConnection, String pSequenceName, int pIncrement) throws SQLException
+    {
+        String sql = "SELECT " + SequenceTable.VALUE_COLUMN + " FROM FINAL TABLE(UPDATE " + SequenceTable.TABLE_NAME
+                + " SET " + SequenceTable.VALUE_COLUMN + "=" + SequenceTable.VALUE_COLUMN + "+? WHERE "
+                + SequenceTable.NAME_COLUMN + "=?)";
+
+        try (PreparedStatement statement = pConnection.prepareStatement(sql))
+        {
+            statement.setInt(1, pIncrement);
+            statement.setString(2, pSequenceName);
+
+            try (ResultSet resultSet = statement.executeQuery())
+            {
+                return resultSet.next() ? resultSet.getLong(1) : null;
+            }
+        }
+    }
+}
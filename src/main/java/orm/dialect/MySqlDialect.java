@@ -0,0 +1,154 @@
+package orm.dialect;
+
+import orm.connection.DataSourceConfig;
+import orm.id.SequenceTable;
+import orm.metadata.ColumnMetadata;
+import orm.metadata.EntityMetadata;
+import orm.types.TypeHandler;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dialect of Mysql databases.
+ * Upserts are "INSERT ... ON DUPLICATE KEY UPDATE" and batches are rewritten into multi-row statements.
+ * Id sequences are incremented with LAST_INSERT_ID(expr), so the new value comes back with the update.
+ */
+public class MySqlDialect implements Dialect
+{
+    public static final String NAME = "mysql";
+
+    @Override
+    public String getName()
+    {
+        return NAME;
+    }
+
+    @Override
+    public boolean supportsUrl(String pUrl)
+    {
+        return pUrl.startsWith("jdbc:mysql:");
+    }
+
+    @Override
+    public String getDefaultDriverClassName()
+    {
+        return "com.mysql.jdbc.Driver";
+    }
+
+    /**
+     * Gets column type, timestamps are stored as datetime because Mysql timestamp
+     * columns are limited to 2038 and may be updated automatically on row update.
+     */
+    @Override
+    public String getColumnType(TypeHandler<?> pTypeHandler)
+    {
+        String sqlType = pTypeHandler.getSqlType();
+        return "timestamp".equalsIgnoreCase(sqlType) ? "datetime(6)" : sqlType;
+    }
+
+    @Override
+    public String getIdentityColumnType(TypeHandler<?> pTypeHandler)
+    {
+        return getColumnType(pTypeHandler) + " auto_increment";
+    }
+
+    /**
+     * Creates insert query followed by "ON DUPLICATE KEY UPDATE" that sets all columns to inserted values.
+     */
+    @Override
+    public String createUpsertSql(EntityMetadata pMetadata)
+    {
+        List<ColumnMetadata> columns = pMetadata.getColumns();
+        StringBuilder sql = new StringBuilder(pMetadata.getInsertSql()).append(" ON DUPLICATE KEY UPDATE ");
+
+        if(columns.isEmpty())
+        {
+            String idName = pMetadata.getIdColumnName();
+            return sql.append(idName).append("=").append(idName).toString();
+        }
+
+        for(int i = 0; i < columns.size(); i++)
+        {
+            String name = columns.get(i).getName();
+            sql.append(i == 0 ? "" : ",").append(name).append("=VALUES(").append(name).append(")");
+        }
+
+        return sql.toString();
+    }
+
+    /**
+     * Lets the driver send a batch as one multi-row statement instead of one round trip per row.
+     */
+    @Override
+    public Map<String, String> getDataSourceProperties(DataSourceConfig pConfig)
+    {
+        if(pConfig.isRewriteBatchedStatements())
+        {
+            return Collections.singletonMap("rewriteBatchedStatements", "true");
+        }
+
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Mysql driver ignores positive fetch sizes unless cursor fetch is enabled in the url,
+     * so Integer.MIN_VALUE is given to make the driver stream rows one by one.
+     */
+    @Override
+    public int getStreamingFetchSize(DataSourceConfig pConfig)
+    {
+        int fetchSize = pConfig.getFetchSize();
+
+        if(fetchSize > 0 && !pConfig.getUrl().contains("useCursorFetch=true"))
+        {
+            return Integer.MIN_VALUE;
+        }
+
+        return fetchSize == Integer.MIN_VALUE ? fetchSize : Math.max(0, fetchSize);
+    }
+
+    /**
+     * Increments sequence with "SET next_val=LAST_INSERT_ID(next_val+?)" in one statement,
+     * the driver returns the new value as generated key of the update.
+     */
+    @Override
+    public Long incrementSequence(Connection pConnection, String pSequenceName, int pIncrement) throws SQLException
+    {
+        String sql = "UPDATE " + SequenceTable.TABLE_NAME + " SET " + SequenceTable.VALUE_COLUMN + "=LAST_INSERT_ID("
+                + SequenceTable.VALUE_COLUMN + "+?) WHERE " + SequenceTable.NAME_COLUMN + "=?";
+
+        try (PreparedStatement statement = pConnection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS))
+        {
+            statement.setInt(1, pIncrement);
+            statement.setString(2, pSequenceName);
+
+            if(statement.executeUpdate() == 0)
+            {
+                return null;
+            }
+
+            try (ResultSet keys = statement.getGeneratedKeys())
+            {
+                if(keys.next())
+                {
+                    return keys.getLong(1);
+                }
+            }
+        }
+
+        // LAST_INSERT_ID is kept per connection, so It can be read back If driver gave no key
+        try (Statement statement = pConnection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT LAST_INSERT_ID()"))
+        {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package orm.exception;
+
+/**
+ * Wraps an {@link EntityOperationException} where checked exceptions can not be thrown,
+ * like while consuming an entity stream.
+ */
+public class UncheckedEntityOperationException extends RuntimeException
+{
+    public UncheckedEntityOperationException(EntityOperationException cause)
+    {
+        super(cause.getMessage(), cause);
+    }
+
+    @Override
+    public EntityOperationException getCause()
+    {
+        return (EntityOperationException) super.getCause();
+    }
+}
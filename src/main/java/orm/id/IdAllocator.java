@@ -0,0 +1,20 @@
+package orm.id;
+
+import java.sql.SQLException;
+
+/**
+ * Generates ids of inserted entities.
+ * Allocators are shared by threads, so implementations must be thread-safe.
+ * Allocator of an entity is found by {@link IdAllocators#get(orm.metadata.EntityMetadata)}.
+ */
+public interface IdAllocator
+{
+    /**
+     * Generates a new unique id.
+     *
+     * @return the id
+     *
+     * @throws SQLException sql exceptions If ids are reserved from db
+     */
+    long nextId() throws SQLException;
+}
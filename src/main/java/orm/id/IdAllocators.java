@@ -0,0 +1,91 @@
+package orm.id;
+
+import annotations.Id;
+import orm.connection.DbConnectionProvider;
+import orm.metadata.EntityMetadata;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of id allocators of entities.
+ * Allocator is created from @Id attributes of entity once, entities that have the same sequence
+ * name share one pooled allocator and all snowflake entities share one snowflake allocator.
+ */
+public class IdAllocators
+{
+    private static final Map<Class<?>, IdAllocator> allocators = new ConcurrentHashMap<>();
+    private static final Map<String, IdAllocator> sequences = new ConcurrentHashMap<>();
+    private static SnowflakeIdAllocator snowflake;
+
+    /**
+     * Private constructor to prevent object creation of this class.
+     */
+    private IdAllocators()
+    {
+
+    }
+
+    /**
+     * Gets id allocator of entity.
+     *
+     * @param pMetadata the metadata of entity that has generated ids
+     * @return          the id allocator
+     *
+     * @throws IllegalArgumentException Thrown If ids of entity are not generated.
+     */
+    public static IdAllocator get(EntityMetadata pMetadata)
+    {
+        IdAllocator allocator = allocators.get(pMetadata.getEntityClass());
+        return allocator != null ? allocator : allocators.computeIfAbsent(pMetadata.getEntityClass(),
+                entityClass -> createAllocator(pMetadata));
+    }
+
+    /**
+     * Drops all allocators and their reserved blocks, e.g. when data source is configured again.
+     */
+    public static void reset()
+    {
+        allocators.clear();
+        sequences.clear();
+        SequenceTable.reset();
+
+        synchronized (IdAllocators.class)
+        {
+            snowflake = null;
+        }
+    }
+
+    private static synchronized SnowflakeIdAllocator getSnowflake()
+    {
+        if(snowflake == null)
+        {
+            snowflake = new SnowflakeIdAllocator(DbConnectionProvider.getConfig().getNodeId());
+        }
+
+        return snowflake;
+    }
+
+    private static IdAllocator createAllocator(EntityMetadata pMetadata)
+    {
+        Id id = pMetadata.getIdColumn() == null ? null : pMetadata.getIdColumn().getField().getAnnotation(Id.class);
+
+        if(id == null)
+        {
+            throw new IllegalArgumentException(pMetadata.getEntityClass().getName()+" has no @Id field !");
+        }
+
+        switch (id.strategy())
+        {
+            case POOLED:
+                String sequenceName = id.sequence().isEmpty() ? pMetadata.getTableName() : id.sequence();
+                return sequences.computeIfAbsent(sequenceName, name -> new PooledIdAllocator(name,
+                        id.allocationSize(), pMetadata.getTableName(), pMetadata.getIdColumnName()));
+            case SNOWFLAKE:
+                return getSnowflake();
+            default:
+                throw new IllegalArgumentException("Ids of "+pMetadata.getEntityClass().getName()
+                        +" are not generated, strategy is "+id.strategy()+" !");
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package orm.id;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hi/lo style allocator that reserves blocks of ids from {@link SequenceTable} and hands them out from memory.
+ * Threads are spread over stripes that have their own block, so handing out an id is a lock-free
+ * increment and only the threads of a stripe wait while It's next block is reserved.
+ * Ids are unique but not strictly ordered across stripes, unused ids of blocks are lost on restart.
+ */
+public class PooledIdAllocator implements IdAllocator
+{
+    private static final int STRIPE_COUNT = stripeCount();
+
+    private final String sequenceName;
+    private final int allocationSize;
+    private final String seedTable;
+    private final String seedColumn;
+    private final Stripe[] stripes;
+
+    /**
+     * Creates allocator of given sequence.
+     *
+     * @param pSequenceName   the sequence name
+     * @param pAllocationSize the number of ids reserved in one round trip
+     * @param pSeedTable      the table whose largest id is the start of a new sequence
+     * @param pSeedColumn     the id column of seed table
+     */
+    public PooledIdAllocator(String pSequenceName, int pAllocationSize, String pSeedTable, String pSeedColumn)
+    {
+        this.sequenceName = pSequenceName;
+        this.allocationSize = Math.max(1, pAllocationSize);
+        this.seedTable = pSeedTable;
+        this.seedColumn = pSeedColumn;
+        this.stripes = new Stripe[STRIPE_COUNT];
+
+        for(int i = 0; i < stripes.length; i++)
+        {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Hands out next id of the stripe of current thread, reserves a new block If block is used up.
+     *
+     * @return the id
+     *
+     * @throws SQLException sql exceptions while reserving a block
+     */
+    @Override
+    public long nextId() throws SQLException
+    {
+        Stripe stripe = stripes[(int) (Thread.currentThread().getId() & (stripes.length - 1))];
+
+        while(true)
+        {
+            Block block = stripe.block;
+            long id = block.next.getAndIncrement();
+
+            if(id < block.end)
+            {
+                return id;
+            }
+
+            synchronized (stripe)
+            {
+                if(stripe.block == block)
+                {
+                    long first = SequenceTable.reserve(sequenceName, allocationSize, seedTable, seedColumn);
+                    stripe.block = new Block(first, first + allocationSize);
+                }
+            }
+        }
+    }
+
+    public String getSequenceName() {
+        return sequenceName;
+    }
+
+    public int getAllocationSize() {
+        return allocationSize;
+    }
+
+    /**
+     * Gets stripe count, It is the power of two that is not greater than processor count, at most 16.
+     */
+    private static int stripeCount()
+    {
+        int processors = Math.min(16, Runtime.getRuntime().availableProcessors());
+        return Integer.highestOneBit(Math.max(1, processors));
+    }
+
+    private static final class Stripe
+    {
+        private volatile Block block = new Block(0, 0);
+    }
+
+    /**
+     * Reserved id range [next, end), next grows past end when block is used up.
+     */
+    private static final class Block
+    {
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long pFirst, long pEnd)
+        {
+            this.next = new AtomicLong(pFirst);
+            this.end = pEnd;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package orm.id;
+
+import orm.connection.DbConnectionProvider;
+import orm.dialect.Dialect;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Db table that stores the next free value of each id sequence.
+ * Blocks of ids are reserved by incrementing the value of a sequence row, so reserved ids
+ * survive restarts and are never given twice, even by different nodes.
+ * Table is created on first use, and a new sequence row starts after the largest id of It's entity table.
+ * Reservations use their own pooled connection in auto-commit mode, so they are never rolled back.
+ */
+public class SequenceTable
+{
+    public static final String TABLE_NAME = "orm_sequence";
+    public static final String NAME_COLUMN = "sequence_name";
+    public static final String VALUE_COLUMN = "next_val";
+
+    private static volatile boolean tableCreated;
+
+    /**
+     * Private constructor to prevent object creation of this class.
+     */
+    private SequenceTable()
+    {
+
+    }
+
+    /**
+     * Reserves a block of ids from given sequence.
+     *
+     * @param pSequenceName the sequence name
+     * @param pCount        the number of reserved ids
+     * @param pSeedTable    the table whose largest id is the start of a new sequence
+     * @param pSeedColumn   the id column of seed table
+     * @return              the first id of reserved block, block is [first, first + pCount)
+     *
+     * @throws SQLException sql exceptions
+     */
+    public static long reserve(String pSequenceName, int pCount, String pSeedTable, String pSeedColumn)
+            throws SQLException
+    {
+        Dialect dialect = DbConnectionProvider.getDialect();
+
+        try (Connection connection = DbConnectionProvider.getDataSource().getConnection())
+        {
+            createTable(connection);
+
+            for(int attempt = 0; ; attempt++)
+            {
+                Long nextValue = dialect.incrementSequence(connection, pSequenceName, pCount);
+
+                if(nextValue != null)
+                {
+                    return nextValue - pCount;
+                }
+
+                long first = findLargestId(connection, pSeedTable, pSeedColumn) + 1;
+
+                try
+                {
+                    insertSequence(connection, pSequenceName, first + pCount);
+                    return first;
+                }
+                catch (SQLException e)
+                {
+                    // another node created the sequence row meanwhile, so It is incremented again
+                    if(attempt > 0 || e.getSQLState() == null || !e.getSQLState().startsWith("23"))
+                    {
+                        throw e;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Forgets that table was created, It is checked again on next reservation.
+     */
+    static void reset()
+    {
+        tableCreated = false;
+    }
+
+    private static void createTable(Connection pConnection) throws SQLException
+    {
+        if(!tableCreated)
+        {
+            try (Statement statement = pConnection.createStatement())
+            {
+                statement.executeUpdate("CREATE TABLE IF NOT EXISTS " + TABLE_NAME + "(" + NAME_COLUMN
+                        + " varchar(100) not null," + VALUE_COLUMN + " bigint not null,"
+                        + "primary key(" + NAME_COLUMN + "))");
+            }
+
+            tableCreated = true;
+        }
+    }
+
+    private static long findLargestId(Connection pConnection, String pTable, String pIdColumn) throws SQLException
+    {
+        try (Statement statement = pConnection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT MAX(" + pIdColumn + ") FROM " + pTable))
+        {
+            return resultSet.next() ? resultSet.getLong(1) : 0;
+        }
+    }
+
+    private static void insertSequence(Connection pConnection, String pSequenceName, long pNextValue)
+            throws SQLException
+    {
+        try (PreparedStatement statement = pConnection.prepareStatement("INSERT INTO " + TABLE_NAME
+                + "(" + NAME_COLUMN + "," + VALUE_COLUMN + ") VALUES(?,?)"))
+        {
+            statement.setString(1, pSequenceName);
+            statement.setLong(2, pNextValue);
+            statement.executeUpdate();
+        }
+    }
+}
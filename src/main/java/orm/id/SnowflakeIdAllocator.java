@@ -0,0 +1,86 @@
+package orm.id;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Snowflake style allocator that creates ids from clock time without any db round trip.
+ * An id is 41 bits of milliseconds since 2020-01-01, 10 bits of node id and 12 bits of sequence,
+ * so ids of a node grow with time and inserts are appended to the end of the primary key index.
+ * Time and sequence are kept in one atomic value that is updated with compare-and-set, so It is lock-free.
+ * If more than 4096 ids are created in a millisecond or the clock goes back, ids continue from the last
+ * time by borrowing the next milliseconds instead of waiting, until the clock catches up again.
+ * Nodes that insert into the same tables must have different node ids.
+ */
+public class SnowflakeIdAllocator implements IdAllocator
+{
+    private static final Logger logger = Logger.getLogger(SnowflakeIdAllocator.class.getSimpleName());
+
+    /** 2020-01-01T00:00:00Z in epoch milliseconds. */
+    private static final long EPOCH = 1577836800000L;
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    /** Last time and sequence of all allocators of this JVM, (time << SEQUENCE_BITS) | sequence. */
+    private static final AtomicLong state = new AtomicLong();
+
+    private final long nodeId;
+
+    /**
+     * Creates allocator of given node.
+     *
+     * @param pNodeId the node id between 0 and 1023, a negative value derives It from process name
+     */
+    public SnowflakeIdAllocator(int pNodeId)
+    {
+        if(pNodeId > MAX_NODE_ID)
+        {
+            throw new IllegalArgumentException("Node id must be between 0 and "+MAX_NODE_ID+" ! Node id: "+pNodeId);
+        }
+
+        this.nodeId = pNodeId >= 0 ? pNodeId : deriveNodeId();
+    }
+
+    /**
+     * Creates next id from current time, node id and sequence.
+     *
+     * @return the id
+     */
+    @Override
+    public long nextId()
+    {
+        while(true)
+        {
+            long current = state.get();
+            long now = System.currentTimeMillis() - EPOCH;
+            // a regressed or same time uses the next sequence, sequence overflow carries into time
+            long next = now > (current >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : current + 1;
+
+            if(state.compareAndSet(current, next))
+            {
+                return (next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)
+                        | nodeId << SEQUENCE_BITS | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    public long getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Derives node id from "pid@host" name of running process, It may collide with another node.
+     */
+    private static int deriveNodeId()
+    {
+        String processName = ManagementFactory.getRuntimeMXBean().getName();
+        int nodeId = (processName.hashCode() & Integer.MAX_VALUE) % (MAX_NODE_ID + 1);
+        logger.log(Level.WARNING,"Snowflake node id is not configured, "+nodeId+" is derived from "+processName
+                +". Set a unique node id per node to prevent id collisions.");
+        return nodeId;
+    }
+}
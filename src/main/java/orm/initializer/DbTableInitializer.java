@@ -3,6 +3,7 @@ package orm.initializer;
 import annotations.EnableTableCreation;
 import orm.connection.DbConnectionProvider;
 import orm.exception.NoExecutableClassFoundException;
+import orm.metadata.EntityMetadataRegistry;
 import orm.sql.DDLQueryGenerator;
 import orm.utilities.ClassObjectUtil;
 import orm.utilities.EntityUtil;
@@ -71,6 +72,7 @@ public class DbTableInitializer implements IDbInitializer
 
     /**
      * Checks whether table is exist in the db.
+     * Table name is converted to the identifier case that db stores, e.g. upper case for H2.
      *
      * @param connection the db connection
      * @param tableName  the table name
@@ -83,8 +85,13 @@ public class DbTableInitializer implements IDbInitializer
     public boolean checkTableIfExist(Connection connection , String tableName) throws SQLException
     {
         DatabaseMetaData meta = connection.getMetaData();
-        ResultSet resultSet = meta.getTables(null, null, tableName, new String[] {"TABLE"});
-        return resultSet.next();
+        String storedName = meta.storesUpperCaseIdentifiers() ? tableName.toUpperCase(Locale.ROOT)
+                : meta.storesLowerCaseIdentifiers() ? tableName.toLowerCase(Locale.ROOT) : tableName;
+
+        try (ResultSet resultSet = meta.getTables(connection.getCatalog(), null, storedName, new String[] {"TABLE"}))
+        {
+            return resultSet.next();
+        }
     }
 
     /**
@@ -100,23 +107,38 @@ public class DbTableInitializer implements IDbInitializer
     private void createTables(Set<Class> pEntityClassObjects) throws SQLException, ClassNotFoundException {
         Connection connection = DbConnectionProvider.getDbConnection();
 
-        for(Class<?> entityClassObject :  pEntityClassObjects)
+        try
         {
-            String tableName = entityClassObject.getSimpleName().toUpperCase(Locale.ROOT);
-
-            if(EntityUtil.isEntity(entityClassObject) && !checkTableIfExist(connection,tableName) )
+            for(Class<?> entityClassObject :  pEntityClassObjects)
             {
-                String sql =  ddlQueryGenerator.createCreateTableQuery(entityClassObject);
-                Statement preparedStatement = connection.createStatement();
-                preparedStatement.executeUpdate(sql);
+                if(!EntityUtil.isEntity(entityClassObject))
+                {
+                    continue;
+                }
 
-                if (checkTableIfExist(connection,tableName))
+                String tableName = EntityMetadataRegistry.getMetadata(entityClassObject).getTableName();
+
+                if(!checkTableIfExist(connection,tableName))
                 {
-                    logger.log(Level.INFO,"ORM : ["+sql+"] executed.");
-                    logger.log(Level.INFO,"Table "+tableName+" was created successfully.");
+                    String sql =  ddlQueryGenerator.createCreateTableQuery(entityClassObject);
+
+                    try (Statement statement = connection.createStatement())
+                    {
+                        statement.executeUpdate(sql);
+                    }
+
+                    if (checkTableIfExist(connection,tableName))
+                    {
+                        logger.log(Level.INFO,"ORM : ["+sql+"] executed.");
+                        logger.log(Level.INFO,"Table "+tableName+" was created successfully.");
+                    }
                 }
             }
         }
+        finally
+        {
+            DbConnectionProvider.releaseConnection(connection);
+        }
     }
 
 }
@@ -0,0 +1,374 @@
+package orm.jparepository;
+
+import orm.connection.DbConnectionProvider;
+import orm.connection.StatementCache;
+import orm.metadata.ColumnMetadata;
+import orm.metadata.EntityMetadata;
+import orm.metadata.EntityMetadataRegistry;
+import orm.query.Operator;
+import orm.utilities.EntityUtil;
+
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compiled query plan of a derived repository method like findByNameAndAgeGreaterThan.
+ * Method name is parsed once into sql, parameter columns and result kind, plans are cached per {@link Method}.
+ * Invocation binds arguments with column type handlers and maps rows with the entity row mapper.
+ *
+ * Supported names:
+ * findBy, findAllBy and findFirstBy return entities, countBy returns the number of rows
+ * and existsBy returns whether a row exists. Predicates are joined with And/Or and may end with
+ * GreaterThan, GreaterThanEqual, LessThan, LessThanEqual, Not, Like, IsNull or IsNotNull.
+ * An OrderBy part with Asc/Desc directions may follow the predicates, like findByAgeOrderByNameAsc.
+ */
+final class DerivedQuery
+{
+    /** Plans per entity class, a method of a generic base repository has a plan for each entity. */
+    private static final ClassValue<Map<Method, DerivedQuery>> plans = new ClassValue<Map<Method, DerivedQuery>>()
+    {
+        @Override
+        protected Map<Method, DerivedQuery> computeValue(Class<?> pEntityClass)
+        {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private static final Pattern JOIN = Pattern.compile("(?<=[a-z0-9])(And|Or)(?=[A-Z])");
+    private static final Pattern ORDER = Pattern.compile("([A-Z][A-Za-z0-9]*?)(Asc|Desc)");
+    private static final String[] SUFFIXES = {"GreaterThanEqual", "LessThanEqual", "GreaterThan", "LessThan",
+            "IsNotNull", "IsNull", "Not", "Like"};
+    private static final Operator[] SUFFIX_OPERATORS = {Operator.GREATER_OR_EQUAL, Operator.LESS_OR_EQUAL,
+            Operator.GREATER_THAN, Operator.LESS_THAN, Operator.IS_NOT_NULL, Operator.IS_NULL,
+            Operator.NOT_EQUAL, Operator.LIKE};
+
+    private enum Kind { LIST, FIRST, OPTIONAL, COUNT, EXISTS }
+
+    private final Class<?> entityClass;
+    private final Kind kind;
+    private final boolean intCount;
+    private final String sql;
+    private final List<ColumnMetadata> parameterColumns;
+
+    private DerivedQuery(Class<?> pEntityClass, Kind pKind, Class<?> pReturnType, String pSql,
+                         List<ColumnMetadata> pParameterColumns)
+    {
+        this.entityClass = pEntityClass;
+        this.kind = pKind;
+        this.intCount = pReturnType == int.class || pReturnType == Integer.class;
+        this.sql = pSql;
+        this.parameterColumns = pParameterColumns;
+    }
+
+    /**
+     * Gets cached plan of given repository method for entity class, parses method name If It is not parsed yet.
+     *
+     * @param pMethod      the derived query method
+     * @param pEntityClass the entity class of repository
+     * @return             the query plan
+     *
+     * @throws IllegalArgumentException Thrown If method name, parameters or return type can not be derived.
+     */
+    static DerivedQuery of(Method pMethod, Class<?> pEntityClass)
+    {
+        Map<Method, DerivedQuery> entityPlans = plans.get(pEntityClass);
+        DerivedQuery plan = entityPlans.get(pMethod);
+        return plan != null ? plan : entityPlans.computeIfAbsent(pMethod, method -> parse(method, pEntityClass));
+    }
+
+    /**
+     * Executes the query with given method arguments.
+     *
+     * @param pArgs the method arguments in predicate order, may be null If method has no parameter
+     * @return      list, entity, optional, count or existence according to the method return type
+     *
+     * @throws Exception sql exceptions or mapping exceptions
+     */
+    Object execute(Object[] pArgs) throws Exception
+    {
+        Connection connection = DbConnectionProvider.getDbConnection();
+        PreparedStatement statement = null;
+
+        try
+        {
+            statement = StatementCache.prepare(connection, sql);
+
+            for(int i = 0; i < parameterColumns.size(); i++)
+            {
+                if(pArgs[i] == null)
+                {
+                    throw new IllegalArgumentException((i + 1)+". argument is null ! " +
+                            "Use IsNull or IsNotNull methods for null checks.");
+                }
+
+                parameterColumns.get(i).bindValue(statement, i + 1, pArgs[i]);
+            }
+
+            try (ResultSet resultSet = statement.executeQuery())
+            {
+                return read(resultSet);
+            }
+        }
+        catch (SQLException e)
+        {
+            throw DbConnectionProvider.evictIfBroken(connection, e);
+        }
+        finally
+        {
+            try
+            {
+                StatementCache.release(statement);
+            }
+            finally
+            {
+                DbConnectionProvider.releaseConnection(connection);
+            }
+        }
+    }
+
+    private Object read(ResultSet pResultSet) throws Exception
+    {
+        switch (kind)
+        {
+            case COUNT:
+                pResultSet.next();
+                long count = pResultSet.getLong(1);
+                return intCount ? (Object) (int) count : (Object) count;
+            case EXISTS:
+                return pResultSet.next();
+            case LIST:
+                List<Object> results = new ArrayList<>();
+                int[] columnIndexes = EntityUtil.resolveColumnIndexes(pResultSet, entityClass);
+
+                while (pResultSet.next())
+                {
+                    results.add(EntityUtil.mapToEntity(pResultSet, entityClass, columnIndexes));
+                }
+
+                return results;
+            default:
+                Object result = pResultSet.next() ? EntityUtil.mapToEntity(pResultSet, entityClass) : null;
+                return kind == Kind.OPTIONAL ? Optional.ofNullable(result) : result;
+        }
+    }
+
+    String getSql()
+    {
+        return sql;
+    }
+
+    private static DerivedQuery parse(Method pMethod, Class<?> pEntityClass)
+    {
+        String name = pMethod.getName();
+        EntityMetadata metadata = EntityMetadataRegistry.getMetadata(pEntityClass);
+        String select;
+        String criteria;
+        Kind kind;
+
+        if(name.startsWith("countBy"))
+        {
+            kind = Kind.COUNT;
+            select = "SELECT COUNT(*) FROM ";
+            criteria = name.substring("countBy".length());
+        }
+        else if(name.startsWith("existsBy"))
+        {
+            kind = Kind.EXISTS;
+            select = "SELECT 1 FROM ";
+            criteria = name.substring("existsBy".length());
+        }
+        else if(name.startsWith("findFirstBy") || name.startsWith("findAllBy") || name.startsWith("findBy"))
+        {
+            kind = Collection.class.isAssignableFrom(pMethod.getReturnType()) ? Kind.LIST
+                    : pMethod.getReturnType() == Optional.class ? Kind.OPTIONAL : Kind.FIRST;
+            select = "SELECT * FROM ";
+            criteria = name.substring(name.indexOf("By") + 2);
+        }
+        else
+        {
+            throw invalid(pMethod, "name must start with findBy, findAllBy, findFirstBy, countBy or existsBy");
+        }
+
+        checkReturnType(pMethod, kind, pEntityClass);
+
+        StringBuilder sql = new StringBuilder(select).append(metadata.getTableName());
+        List<ColumnMetadata> parameterColumns = new ArrayList<>();
+        int orderIndex = criteria.indexOf("OrderBy");
+        String predicates = orderIndex < 0 ? criteria : criteria.substring(0, orderIndex);
+
+        if(!predicates.isEmpty())
+        {
+            sql.append(" WHERE ");
+            appendPredicates(pMethod, metadata, predicates, sql, parameterColumns);
+        }
+
+        if(orderIndex >= 0)
+        {
+            appendOrder(pMethod, metadata, criteria.substring(orderIndex + "OrderBy".length()), sql);
+        }
+
+        if(kind == Kind.FIRST || kind == Kind.OPTIONAL || kind == Kind.EXISTS
+                || (kind == Kind.LIST && name.startsWith("findFirstBy")))
+        {
+            sql.append(" LIMIT 1");
+        }
+
+        checkParameters(pMethod, parameterColumns);
+        return new DerivedQuery(pEntityClass, kind, pMethod.getReturnType(), sql.toString(),
+                Collections.unmodifiableList(parameterColumns));
+    }
+
+    private static void appendPredicates(Method pMethod, EntityMetadata pMetadata, String pPredicates,
+                                         StringBuilder pSql, List<ColumnMetadata> pParameterColumns)
+    {
+        Matcher matcher = JOIN.matcher(pPredicates);
+        int start = 0;
+        String join = "";
+
+        while (true)
+        {
+            boolean found = matcher.find();
+            String part = pPredicates.substring(start, found ? matcher.start() : pPredicates.length());
+            Operator operator = Operator.EQUAL;
+
+            for(int i = 0; i < SUFFIXES.length; i++)
+            {
+                if(part.endsWith(SUFFIXES[i]) && part.length() > SUFFIXES[i].length())
+                {
+                    operator = SUFFIX_OPERATORS[i];
+                    part = part.substring(0, part.length() - SUFFIXES[i].length());
+                    break;
+                }
+            }
+
+            ColumnMetadata column = column(pMethod, pMetadata, part);
+            pSql.append(join).append(column.getName()).append(operator.getSql());
+
+            if(operator.hasValue())
+            {
+                pParameterColumns.add(column);
+            }
+
+            if(!found)
+            {
+                return;
+            }
+
+            join = " " + matcher.group(1).toUpperCase(Locale.ROOT) + " ";
+            start = matcher.end();
+        }
+    }
+
+    private static void appendOrder(Method pMethod, EntityMetadata pMetadata, String pOrder, StringBuilder pSql)
+    {
+        Matcher matcher = ORDER.matcher(pOrder);
+        int end = 0;
+
+        while (matcher.find() && matcher.start() == end)
+        {
+            ColumnMetadata column = column(pMethod, pMetadata, matcher.group(1));
+            pSql.append(end == 0 ? " ORDER BY " : ",").append(column.getName())
+                .append(matcher.group(2).equals("Desc") ? " DESC" : "");
+            end = matcher.end();
+        }
+
+        if(end == 0 || end != pOrder.length())
+        {
+            throw invalid(pMethod, "OrderBy must be followed by properties with Asc or Desc directions");
+        }
+    }
+
+    private static ColumnMetadata column(Method pMethod, EntityMetadata pMetadata, String pProperty)
+    {
+        if(pProperty.isEmpty())
+        {
+            throw invalid(pMethod, "property name is missing");
+        }
+
+        String fieldName = pProperty.substring(0, 1).toLowerCase(Locale.ROOT) + pProperty.substring(1);
+        ColumnMetadata column = pMetadata.getColumn(fieldName);
+
+        if(column == null)
+        {
+            throw invalid(pMethod, fieldName+" is not a mapped field of "+pMetadata.getEntityClass().getName());
+        }
+
+        return column;
+    }
+
+    private static void checkReturnType(Method pMethod, Kind pKind, Class<?> pEntityClass)
+    {
+        Class<?> returnType = pMethod.getReturnType();
+        boolean valid;
+
+        switch (pKind)
+        {
+            case COUNT:
+                valid = returnType == long.class || returnType == Long.class
+                        || returnType == int.class || returnType == Integer.class;
+                break;
+            case EXISTS:
+                valid = returnType == boolean.class || returnType == Boolean.class;
+                break;
+            case LIST:
+                valid = returnType.isAssignableFrom(List.class);
+                break;
+            case OPTIONAL:
+                valid = true;
+                break;
+            default:
+                valid = returnType.isAssignableFrom(pEntityClass);
+        }
+
+        if(!valid)
+        {
+            throw invalid(pMethod, returnType.getName()+" return type is not supported");
+        }
+    }
+
+    private static void checkParameters(Method pMethod, List<ColumnMetadata> pParameterColumns)
+    {
+        Class<?>[] parameterTypes = pMethod.getParameterTypes();
+
+        if(parameterTypes.length != pParameterColumns.size())
+        {
+            throw invalid(pMethod, pParameterColumns.size()+" parameters are expected, found "+parameterTypes.length);
+        }
+
+        for(int i = 0; i < parameterTypes.length; i++)
+        {
+            Class<?> columnType = wrap(pParameterColumns.get(i).getType());
+
+            if(!columnType.isAssignableFrom(wrap(parameterTypes[i])))
+            {
+                throw invalid(pMethod, (i + 1)+". parameter must be "+columnType.getName()
+                        +" for "+pParameterColumns.get(i).getName());
+            }
+        }
+    }
+
+    private static Class<?> wrap(Class<?> pType)
+    {
+        return MethodType.methodType(pType).wrap().returnType();
+    }
+
+    private static IllegalArgumentException invalid(Method pMethod, String pReason)
+    {
+        return new IllegalArgumentException("Query of "+pMethod.getDeclaringClass().getSimpleName()+"."
+                +pMethod.getName()+" could not be derived ! "+pReason+".");
+    }
+}
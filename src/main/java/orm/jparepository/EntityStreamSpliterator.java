@@ -0,0 +1,113 @@
+package orm.jparepository;
+
+import orm.connection.DbConnectionProvider;
+import orm.exception.EntityOperationException;
+import orm.exception.UncheckedEntityOperationException;
+import orm.utilities.EntityUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Open cursor over the rows of an entity query that maps one row per advance.
+ * It owns the borrowed connection, the statement and the result set,
+ * they are released when rows are exhausted or when the stream is closed.
+ *
+ * @param <T> the entity type
+ */
+class EntityStreamSpliterator<T> extends Spliterators.AbstractSpliterator<T> implements Runnable
+{
+    private static final Logger logger = Logger.getLogger(EntityStreamSpliterator.class.getSimpleName());
+
+    private final Class<T> entityClassObject;
+    private final Connection connection;
+    private final PreparedStatement statement;
+    private final ResultSet resultSet;
+    private final int[] columnIndexes;
+    private boolean closed;
+
+    EntityStreamSpliterator(Class<T> pEntityClassObject, Connection pConnection,
+                            PreparedStatement pStatement, ResultSet pResultSet) throws SQLException
+    {
+        super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+        this.entityClassObject = pEntityClassObject;
+        this.connection = pConnection;
+        this.statement = pStatement;
+        this.resultSet = pResultSet;
+        this.columnIndexes = EntityUtil.resolveColumnIndexes(pResultSet, pEntityClassObject);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> pAction)
+    {
+        if(closed)
+        {
+            return false;
+        }
+
+        T entity;
+
+        try
+        {
+            if(!resultSet.next())
+            {
+                run();
+                return false;
+            }
+
+            entity = EntityUtil.mapToEntity(resultSet, entityClassObject, columnIndexes);
+        }
+        catch (Exception e)
+        {
+            run();
+            throw new UncheckedEntityOperationException(new EntityOperationException(
+                    "Entity stream of "+entityClassObject.getName()+" could not be read !", e));
+        }
+
+        pAction.accept(entity);
+        return true;
+    }
+
+    /**
+     * Closes result set and statement, returns connection to the pool.
+     * It is the close handler of the stream, calling It more than once has no effect.
+     */
+    @Override
+    public void run()
+    {
+        if(closed)
+        {
+            return;
+        }
+
+        closed = true;
+
+        try
+        {
+            resultSet.close();
+            statement.close();
+        }
+        catch (SQLException e)
+        {
+            logger.log(Level.WARNING,"Entity stream of "+entityClassObject.getName()+" could not be closed !",e);
+        }
+        finally
+        {
+            try
+            {
+                DbConnectionProvider.releaseConnection(connection);
+            }
+            catch (SQLException e)
+            {
+                logger.log(Level.WARNING,"Connection of entity stream could not be released !",e);
+            }
+        }
+    }
+}
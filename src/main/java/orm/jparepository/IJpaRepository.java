@@ -3,9 +3,13 @@ package orm.jparepository;
 
 import orm.exception.EntityOperationException;
 import orm.exception.UnsupportedFieldTypeException;
+import orm.query.Criteria;
 
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * JPA repository interface to perform base entity operations.
@@ -18,6 +22,19 @@ public interface IJpaRepository<T,ID>
     void save(T pEntity) throws EntityOperationException;
     void remove(T Entity) throws EntityOperationException;
     List<T> findAll(Class<T> pEntityClassObject) throws EntityOperationException;
+    List<T> findAll(Criteria<T> pCriteria) throws EntityOperationException;
+    <P> List<P> findAll(Class<T> pEntityClassObject, Class<P> pProjectionType) throws EntityOperationException;
+    <P> List<P> findAll(Criteria<T> pCriteria, Class<P> pProjectionType) throws EntityOperationException;
+    Stream<T> stream(Class<T> pEntityClassObject) throws EntityOperationException;
     T findById(Class<T> pEntityClassObject, ID pId) throws EntityOperationException;
+    Map<ID,T> findAllByIds(Class<T> pEntityClassObject, Collection<ID> pIds) throws EntityOperationException;
+    Slice<T> findPage(Class<T> pEntityClassObject, ID pAfterId, int pLimit) throws EntityOperationException;
     void update (T Entity) throws EntityOperationException;
+    void upsert(T pEntity) throws EntityOperationException;
+    int[] upsertAll(Collection<T> pEntities) throws EntityOperationException;
+    int deleteWhere(Criteria<T> pCriteria) throws EntityOperationException;
+    int updateWhere(Criteria<T> pCriteria, Map<String, ?> pValues) throws EntityOperationException;
+    int[] saveAll(Collection<T> pEntities) throws EntityOperationException;
+    int[] updateAll(Collection<T> pEntities) throws EntityOperationException;
+    int[] removeAll(Collection<T> pEntities) throws EntityOperationException;
 }
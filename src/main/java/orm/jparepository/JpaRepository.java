@@ -1,20 +1,40 @@
 package orm.jparepository;
 
 
+import annotations.GenerationType;
+import orm.cache.EntityCache;
+import orm.cache.EntityCaches;
 import orm.connection.DbConnectionProvider;
+import orm.connection.StatementCache;
+import orm.connection.TransactionManager;
 import orm.entity.Person;
 import orm.exception.EntityOperationException;
 import orm.exception.UnsupportedFieldTypeException;
+import orm.metadata.EntityMetadata;
+import orm.metadata.EntityMetadataRegistry;
+import orm.metadata.EntitySnapshots;
+import orm.projection.ProjectionPlan;
+import orm.query.Criteria;
 import orm.sql.IQueryGenerator;
 import orm.sql.IStatementGenerator;
 import orm.utilities.EntityUtil;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -41,6 +61,7 @@ public class JpaRepository<T,ID> implements IJpaRepository<T,ID>
 
     /**
      * Saves entity to db.
+     * Generated id is set to entity, including ids that are generated by db.
      *
      * @param pEntity    the entity object
      * @throws EntityOperationException exceptions that may occur while saving this entity to db like
@@ -56,11 +77,30 @@ public class JpaRepository<T,ID> implements IJpaRepository<T,ID>
 
             if(EntityUtil.isEntity(entityClassObject) && sql != null)
             {
-                PreparedStatement preparedStatement =  statementGenerator.createInsertStatement(sql,pEntity);
+                Connection connection = DbConnectionProvider.getDbConnection();
+                PreparedStatement preparedStatement = null;
 
-                if(preparedStatement != null)
+                try
                 {
-                    preparedStatement.executeUpdate();
+                    preparedStatement = statementGenerator.createInsertStatement(connection,sql,pEntity);
+
+                    if(preparedStatement != null)
+                    {
+                        preparedStatement.executeUpdate();
+
+                        if(hasIdentityId(entityClassObject))
+                        {
+                            statementGenerator.readGeneratedIds(preparedStatement, Collections.singletonList(pEntity));
+                        }
+                    }
+                }
+                catch (SQLException e)
+                {
+                    throw DbConnectionProvider.evictIfBroken(connection, e);
+                }
+                finally
+                {
+                    release(preparedStatement, connection);
                 }
             }
             else
@@ -87,8 +127,24 @@ public class JpaRepository<T,ID> implements IJpaRepository<T,ID>
 
                 if(sql != null)
                 {
-                    PreparedStatement statement = statementGenerator.createDeleteStatement(sql,pEntity);
-                    statement.executeUpdate();
+                    Connection connection = DbConnectionProvider.getDbConnection();
+                    PreparedStatement statement = null;
+
+                    try
+                    {
+                        statement = statementGenerator.createDeleteStatement(connection,sql,pEntity);
+                        statement.executeUpdate();
+                        EntitySnapshots.remove(pEntity);
+                        EntityCaches.invalidate(pEntity);
+                    }
+                    catch (SQLException e)
+                    {
+                        throw DbConnectionProvider.evictIfBroken(connection, e);
+                    }
+                    finally
+                    {
+                        release(statement, connection);
+                    }
                 }
             }
             else
@@ -116,17 +172,32 @@ public class JpaRepository<T,ID> implements IJpaRepository<T,ID>
 
                 if(sql != null)
                 {
-                    PreparedStatement statement = statementGenerator.createSelectAllIdStatement(sql);
-                    ResultSet resultSet = statement.executeQuery();
+                    Connection connection = DbConnectionProvider.getDbConnection();
+                    PreparedStatement statement = null;
 
-                    if(resultSet != null)
+                    try
                     {
-                        while (resultSet.next())
+                        statement = statementGenerator.createSelectAllIdStatement(connection,sql);
+
+                        try (ResultSet resultSet = statement.executeQuery())
                         {
-                            T result = EntityUtil.mapToEntity(resultSet,pEntityClassObject);
-                            results.add(result);
+                            int[] columnIndexes = EntityUtil.resolveColumnIndexes(resultSet,pEntityClassObject);
+
+                            while (resultSet.next())
+                            {
+                                T result = EntityUtil.mapToEntity(resultSet,pEntityClassObject,columnIndexes);
+                                results.add(result);
+                            }
                         }
                     }
+                    catch (SQLException e)
+                    {
+                        throw DbConnectionProvider.evictIfBroken(connection, e);
+                    }
+                    finally
+                    {
+                        release(statement, connection);
+                    }
                 }
             }
             else
@@ -143,28 +214,425 @@ public class JpaRepository<T,ID> implements IJpaRepository<T,ID>
         return results;
     }
 
+    /**
+     * Finds entities that match given criteria.
+     * Rows are mapped with the same row mapper as the other find operations.
+     *
+     * @param pCriteria the criteria query
+     * @return          the matching entities in query order
+     * @throws EntityOperationException Thrown If query could not be executed.
+     */
+    @Override
+    public List<T> findAll(Criteria<T> pCriteria) throws EntityOperationException
+    {
+        List<T> results = new ArrayList<>();
+        Class<T> entityClassObject = pCriteria.getEntityClass();
+
+        try
+        {
+            Connection connection = DbConnectionProvider.getDbConnection();
+            PreparedStatement statement = null;
+
+            try
+            {
+                statement = statementGenerator.createCriteriaStatement(connection,pCriteria.toSql(),pCriteria);
+
+                try (ResultSet resultSet = statement.executeQuery())
+                {
+                    int[] columnIndexes = EntityUtil.resolveColumnIndexes(resultSet,entityClassObject);
+
+                    while (resultSet.next())
+                    {
+                        results.add(EntityUtil.mapToEntity(resultSet,entityClassObject,columnIndexes));
+                    }
+                }
+            }
+            catch (SQLException e)
+            {
+                throw DbConnectionProvider.evictIfBroken(connection, e);
+            }
+            finally
+            {
+                release(statement, connection);
+            }
+        }
+        catch (Exception e)
+        {
+            throw new EntityOperationException("Criteria query could not be executed ! "+pCriteria.toSql(), e);
+        }
+
+        return results;
+    }
+
+    /**
+     * Finds all entities of given class as projections.
+     * Only the projected columns are selected and mapped.
+     *
+     * @param pEntityClassObject the entity class object
+     * @param pProjectionType    the projection interface or class, see {@link ProjectionPlan}
+     * @param <P>                the projection type
+     * @return                   the projections
+     * @throws EntityOperationException Thrown If projection is invalid or query could not be executed.
+     */
+    @Override
+    public <P> List<P> findAll(Class<T> pEntityClassObject, Class<P> pProjectionType) throws EntityOperationException
+    {
+        if(!EntityUtil.isEntity(pEntityClassObject))
+        {
+            logger.log(Level.WARNING,"Class "+pEntityClassObject.getName()+" is not a entity !" +
+                    " Claas must have @Entity annotation to perform entity operations.");
+            return new ArrayList<>();
+        }
+
+        return findProjections(pEntityClassObject, pProjectionType, null);
+    }
+
+    /**
+     * Finds projections of entities that match given criteria.
+     * Only the projected columns are selected and mapped.
+     *
+     * @param pCriteria       the criteria query
+     * @param pProjectionType the projection interface or class, see {@link ProjectionPlan}
+     * @param <P>             the projection type
+     * @return                the projections in query order
+     * @throws EntityOperationException Thrown If projection is invalid or query could not be executed.
+     */
+    @Override
+    public <P> List<P> findAll(Criteria<T> pCriteria, Class<P> pProjectionType) throws EntityOperationException
+    {
+        return findProjections(pCriteria.getEntityClass(), pProjectionType, pCriteria);
+    }
+
+    private <P> List<P> findProjections(Class<T> pEntityClassObject, Class<P> pProjectionType, Criteria<T> pCriteria)
+            throws EntityOperationException
+    {
+        List<P> results = new ArrayList<>();
+
+        try
+        {
+            ProjectionPlan<P> plan = ProjectionPlan.of(pEntityClassObject, pProjectionType);
+            Connection connection = DbConnectionProvider.getDbConnection();
+            PreparedStatement statement = null;
+
+            try
+            {
+                statement = pCriteria == null
+                        ? statementGenerator.createSelectAllIdStatement(connection,plan.getFindAllSql())
+                        : statementGenerator.createCriteriaStatement(connection,pCriteria.toSql(plan.getSelectList()),
+                                pCriteria);
+
+                try (ResultSet resultSet = statement.executeQuery())
+                {
+                    while (resultSet.next())
+                    {
+                        results.add(plan.map(resultSet));
+                    }
+                }
+            }
+            catch (SQLException e)
+            {
+                throw DbConnectionProvider.evictIfBroken(connection, e);
+            }
+            finally
+            {
+                release(statement, connection);
+            }
+        }
+        catch (Exception e)
+        {
+            throw new EntityOperationException(pProjectionType.getName()+" projections of "
+                    +pEntityClassObject.getName()+" could not be found !", e);
+        }
+
+        return results;
+    }
+
+    /**
+     * Streams all entities of given class, rows are mapped lazily while the stream is consumed.
+     * Statement uses configured fetch size, so memory usage does not depend on table size.
+     * The stream holds a pooled connection until all rows are read or It is closed,
+     * so It should be used in a try-with-resources block.
+     *
+     * @param pEntityClassObject the entity class object
+     * @return                   the lazily mapped entity stream, empty If class is not an entity
+     * @throws EntityOperationException Thrown If query could not be executed. Failures while reading rows
+     *                                  are thrown as {@link orm.exception.UncheckedEntityOperationException}.
+     */
+    @Override
+    public Stream<T> stream(Class<T> pEntityClassObject) throws EntityOperationException
+    {
+        if(!EntityUtil.isEntity(pEntityClassObject))
+        {
+            logger.log(Level.WARNING,"Class "+pEntityClassObject.getName()+" is not a entity !" +
+                    " Claas must have @Entity annotation to perform entity operations.");
+            return Stream.empty();
+        }
+
+        String sql = queryGenerator.createFindAllQuery(pEntityClassObject);
+
+        if(sql == null)
+        {
+            return Stream.empty();
+        }
+
+        Connection connection = null;
+        PreparedStatement statement = null;
+
+        try
+        {
+            connection = DbConnectionProvider.getDbConnection();
+            // not taken from the statement cache, fetch size and open result set belong to this stream only
+            statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(DbConnectionProvider.getFetchSize());
+
+            EntityStreamSpliterator<T> spliterator = new EntityStreamSpliterator<>(pEntityClassObject,
+                    connection, statement, statement.executeQuery());
+            return StreamSupport.stream(spliterator, false).onClose(spliterator);
+        }
+        catch (Exception e)
+        {
+            try
+            {
+                release(statement, connection);
+            }
+            catch (SQLException releaseException)
+            {
+                e.addSuppressed(releaseException);
+            }
+
+            throw new EntityOperationException("Query could not be executed !", e);
+        }
+    }
+
+    /**
+     * Finds entity by id.
+     * Entities of @Cacheable classes are read from the second-level cache, a miss is loaded once
+     * even If several threads ask for the same id at the same time.
+     * Cache is bypassed in a transaction, so uncommitted rows of the transaction are never shared.
+     *
+     * @param pEntityClassObject the entity class object
+     * @param pId                the entity id
+     * @return                   the entity, null If It is not found
+     * @throws EntityOperationException Thrown If query could not be executed.
+     */
     @Override
     public T findById(Class<T> pEntityClassObject, ID pId) throws EntityOperationException {
+        try
+        {
+            if(EntityUtil.isEntity(pEntityClassObject))
+            {
+                EntityCache cache = pId == null || TransactionManager.isActive() ? null
+                        : EntityCaches.get(pEntityClassObject);
+
+                return cache == null ? loadById(pEntityClassObject, pId)
+                        : pEntityClassObject.cast(cache.get(pId, () -> loadById(pEntityClassObject, pId)));
+            }
+            else
+            {
+                logger.log(Level.WARNING,"Class "+pEntityClassObject.getName()+" is not a entity !" +
+                        " Claas must have @Entity annotation to perform entity operations.");
+            }
+        }
+        catch (Exception e)
+        {
+            throw new EntityOperationException("Find entity operation is failed for id = "+pId,e);
+        }
+
+        return null;
+    }
+
+    private T loadById(Class<T> pEntityClassObject, ID pId) throws Exception
+    {
         T result = null;
+        String sql = queryGenerator.createFindByIdQuery(pEntityClassObject);
+
+        if(sql != null)
+        {
+            Connection connection = DbConnectionProvider.getDbConnection();
+            PreparedStatement statement = null;
+
+            try
+            {
+                statement = statementGenerator.createSelectByIdStatement(connection,sql,pEntityClassObject,pId);
+
+                try (ResultSet resultSet = statement.executeQuery())
+                {
+                    while (resultSet.next())
+                    {
+                        result = EntityUtil.mapToEntity(resultSet, pEntityClassObject);
+                    }
+                }
+            }
+            catch (SQLException e)
+            {
+                throw DbConnectionProvider.evictIfBroken(connection, e);
+            }
+            finally
+            {
+                release(statement, connection);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Finds entities of given ids with "id IN (...)" queries.
+     * Ids are split into chunks of at most {@link EntityMetadata#MAX_IN_LIST_SIZE} and each chunk is padded to
+     * a power of two arity, so a few cached statements serve any number of ids.
+     *
+     * @param pEntityClassObject the entity class object
+     * @param pIds               the entity ids, duplicate and null ids are ignored
+     * @return                   found entities keyed by id in the order of given ids,
+     *                           ids that are not found have no entry
+     * @throws EntityOperationException Thrown If a query could not be executed.
+     */
+    @Override
+    public Map<ID,T> findAllByIds(Class<T> pEntityClassObject, Collection<ID> pIds) throws EntityOperationException
+    {
+        List<ID> ids = new ArrayList<>(new LinkedHashSet<>(pIds));
+        ids.remove(null);
+        Map<Object,T> found = new HashMap<>();
+
+        try
+        {
+            if(EntityUtil.isEntity(pEntityClassObject))
+            {
+                EntityMetadata metadata = EntityMetadataRegistry.getMetadata(pEntityClassObject);
+                Connection connection = ids.isEmpty() ? null : DbConnectionProvider.getDbConnection();
+
+                try
+                {
+                    for(int from = 0; from < ids.size(); from += EntityMetadata.MAX_IN_LIST_SIZE)
+                    {
+                        List<ID> chunk = ids.subList(from,
+                                Math.min(ids.size(), from + EntityMetadata.MAX_IN_LIST_SIZE));
+                        int arity = EntityMetadata.inListArity(chunk.size());
+                        String sql = queryGenerator.createFindByIdsQuery(pEntityClassObject, arity);
+
+                        if(sql == null)
+                        {
+                            break;
+                        }
+
+                        PreparedStatement statement = statementGenerator.createSelectByIdsStatement(connection,sql,
+                                pEntityClassObject,chunk,arity);
+
+                        try (ResultSet resultSet = statement.executeQuery())
+                        {
+                            int[] columnIndexes = EntityUtil.resolveColumnIndexes(resultSet,pEntityClassObject);
+
+                            while (resultSet.next())
+                            {
+                                T result = EntityUtil.mapToEntity(resultSet,pEntityClassObject,columnIndexes);
+                                found.put(metadata.<T>getBinder().getId(result), result);
+                            }
+                        }
+                        finally
+                        {
+                            StatementCache.release(statement);
+                        }
+                    }
+                }
+                catch (SQLException e)
+                {
+                    throw DbConnectionProvider.evictIfBroken(connection, e);
+                }
+                finally
+                {
+                    DbConnectionProvider.releaseConnection(connection);
+                }
+            }
+            else
+            {
+                logger.log(Level.WARNING,"Class "+pEntityClassObject.getName()+" is not a entity !" +
+                        " Claas must have @Entity annotation to perform entity operations.");
+            }
+        }
+        catch (Exception e)
+        {
+            throw new EntityOperationException("Find entities operation is failed for "+ids.size()+" ids !",e);
+        }
+
+        Map<ID,T> results = new LinkedHashMap<>();
+
+        for(ID id : ids)
+        {
+            T result = found.get(id);
+
+            if(result != null)
+            {
+                results.put(id, result);
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Finds a page of entities ordered by id using keyset pagination.
+     * Rows are sought with "id > afterId ORDER BY id LIMIT n" on the id index instead of
+     * OFFSET, so reading a deep page costs the same as reading the first one.
+     * One more row than the limit is read to know whether a next page exists.
+     *
+     * @param pEntityClassObject the entity class object
+     * @param pAfterId           the last id of previous page, null for first page
+     * @param pLimit             the maximum number of entities of the page
+     * @return                   the page, empty If class is not an entity or has no id
+     * @throws EntityOperationException Thrown If limit is not positive or query could not be executed.
+     */
+    @Override
+    public Slice<T> findPage(Class<T> pEntityClassObject, ID pAfterId, int pLimit) throws EntityOperationException
+    {
+        if(pLimit <= 0)
+        {
+            throw new EntityOperationException("Page limit must be positive ! limit = "+pLimit);
+        }
+
+        List<T> results = new ArrayList<>();
+        boolean hasNext = false;
 
         try
         {
             if(EntityUtil.isEntity(pEntityClassObject))
             {
-                String sql = queryGenerator.createFindByIdQuery(pEntityClassObject);
+                String sql = pAfterId == null ? queryGenerator.createFindFirstPageQuery(pEntityClassObject)
+                        : queryGenerator.createFindPageQuery(pEntityClassObject);
 
                 if(sql != null)
                 {
-                    PreparedStatement statement = statementGenerator.createSelectByIdStatement(sql,pId);
-                    ResultSet resultSet = statement.executeQuery();
+                    Connection connection = DbConnectionProvider.getDbConnection();
+                    PreparedStatement statement = null;
 
-                    if(resultSet != null)
+                    try
                     {
-                        while (resultSet.next())
+                        statement = statementGenerator.createSelectPageStatement(connection,sql,pEntityClassObject,pAfterId,
+                                pLimit == Integer.MAX_VALUE ? pLimit : pLimit + 1);
+
+                        try (ResultSet resultSet = statement.executeQuery())
                         {
-                            result = EntityUtil.mapToEntity(resultSet, pEntityClassObject);
+                            int[] columnIndexes = EntityUtil.resolveColumnIndexes(resultSet,pEntityClassObject);
+
+                            while (resultSet.next())
+                            {
+                                if(results.size() == pLimit)
+                                {
+                                    hasNext = true;
+                                    break;
+                                }
+
+                                results.add(EntityUtil.mapToEntity(resultSet,pEntityClassObject,columnIndexes));
+                            }
                         }
                     }
+                    catch (SQLException e)
+                    {
+                        throw DbConnectionProvider.evictIfBroken(connection, e);
+                    }
+                    finally
+                    {
+                        release(statement, connection);
+                    }
                 }
             }
             else
@@ -175,24 +643,59 @@ public class JpaRepository<T,ID> implements IJpaRepository<T,ID>
         }
         catch (Exception e)
         {
-            throw new EntityOperationException("Find entity operation is failed for id = "+pId,e);
+            throw new EntityOperationException("Page query could not be executed after id = "+pAfterId, e);
         }
 
-        return result;
+        Object lastId = results.isEmpty() ? null : EntityMetadataRegistry.getMetadata(pEntityClassObject)
+                .<T>getBinder().getId(results.get(results.size() - 1));
+        return new Slice<>(results, hasNext, lastId);
     }
 
+    /**
+     * Updates entity in db.
+     * If entity was loaded or updated by the repository, only the columns changed since then are written
+     * and db is not called at all when nothing has changed. Other entities are updated with all columns.
+     *
+     * @param pEntity the entity object
+     * @throws EntityOperationException exceptions that may occur while updating entity, like a null id.
+     */
     @Override
     public void update(T pEntity) throws EntityOperationException {
         try
         {
             if(EntityUtil.isEntity(pEntity.getClass()))
             {
-                String sql = queryGenerator.createUpdateQuery(pEntity.getClass());
+                EntityMetadata metadata = EntityMetadataRegistry.getMetadata(pEntity.getClass());
+                long columnMask = EntitySnapshots.dirtyMask(metadata, pEntity);
+
+                if(columnMask == 0)
+                {
+                    logger.log(Level.FINE,"Entity "+pEntity.toString()+" is not changed, update is skipped.");
+                    return;
+                }
+
+                String sql = queryGenerator.createUpdateQuery(pEntity.getClass(), columnMask);
 
                 if(sql != null)
                 {
-                    PreparedStatement statement = statementGenerator.createUpdateStatement(sql,pEntity);
-                    statement.executeUpdate();
+                    Connection connection = DbConnectionProvider.getDbConnection();
+                    PreparedStatement statement = null;
+
+                    try
+                    {
+                        statement = statementGenerator.createUpdateStatement(connection,sql,pEntity,columnMask);
+                        statement.executeUpdate();
+                        EntitySnapshots.take(metadata, pEntity);
+                        EntityCaches.invalidate(pEntity);
+                    }
+                    catch (SQLException e)
+                    {
+                        throw DbConnectionProvider.evictIfBroken(connection, e);
+                    }
+                    finally
+                    {
+                        release(statement, connection);
+                    }
                 }
             }
             else
@@ -206,4 +709,367 @@ public class JpaRepository<T,ID> implements IJpaRepository<T,ID>
             throw new EntityOperationException("Entity "+pEntity.toString()+ " could not be updated !",e);
         }
     }
+
+    /**
+     * Inserts entity or updates all of It's columns If an entity with the same id exists, in one statement.
+     * Entity id must be set.
+     *
+     * @param pEntity the entity object
+     * @throws EntityOperationException Thrown If entity has no id or query could not be executed.
+     */
+    @Override
+    public void upsert(T pEntity) throws EntityOperationException
+    {
+        upsertAll(Collections.singletonList(pEntity));
+    }
+
+    /**
+     * Inserts or updates entities by id using JDBC batches of configured batch size.
+     * Ids of entities must be set.
+     *
+     * @param pEntities the entity objects, they must be instances of the same entity class
+     * @return          update counts of entities in given order, Mysql gives 1 for an inserted row,
+     *                  2 for an updated row and 0 for an unchanged row
+     * @throws EntityOperationException Thrown If an entity has no id or query could not be executed.
+     *                                  Batches that were sent before the failure are not rolled back.
+     */
+    @Override
+    public int[] upsertAll(Collection<T> pEntities) throws EntityOperationException
+    {
+        try
+        {
+            int[] updateCounts = executeBatch(pEntities, queryGenerator::createUpsertQuery,
+                    statementGenerator::bindUpsertStatement);
+
+            for(T entity : pEntities)
+            {
+                EntitySnapshots.take(EntityMetadataRegistry.getMetadata(entity.getClass()), entity);
+                EntityCaches.invalidate(entity);
+            }
+
+            return updateCounts;
+        }
+        catch (Exception e)
+        {
+            throw new EntityOperationException("Entities could not be upserted !",e);
+        }
+    }
+
+    /**
+     * Deletes entities that match given criteria with one delete statement, entities are not loaded.
+     * Criteria without predicates deletes all entities of It's class.
+     *
+     * @param pCriteria the criteria of deleted entities, without ordering or limit
+     * @return          the number of deleted rows
+     * @throws EntityOperationException Thrown If query could not be executed.
+     */
+    @Override
+    public int deleteWhere(Criteria<T> pCriteria) throws EntityOperationException
+    {
+        try
+        {
+            return executeBulk(pCriteria.toDeleteSql(), pCriteria, null);
+        }
+        catch (Exception e)
+        {
+            throw new EntityOperationException("Entities of "+pCriteria.getEntityClass().getName()
+                    +" could not be deleted !", e);
+        }
+    }
+
+    /**
+     * Sets given fields of entities that match given criteria with one update statement, entities are not loaded.
+     * Snapshots of already loaded entities are not changed, so their later updates write only their own changes.
+     *
+     * @param pCriteria the criteria of updated entities, without ordering or limit
+     * @param pValues   the new field values keyed by field name
+     * @return          the number of updated rows
+     * @throws EntityOperationException Thrown If a field can not be set or query could not be executed.
+     */
+    @Override
+    public int updateWhere(Criteria<T> pCriteria, Map<String, ?> pValues) throws EntityOperationException
+    {
+        try
+        {
+            return executeBulk(pCriteria.toUpdateSql(pValues.keySet()), pCriteria, pValues);
+        }
+        catch (Exception e)
+        {
+            throw new EntityOperationException("Entities of "+pCriteria.getEntityClass().getName()
+                    +" could not be updated !", e);
+        }
+    }
+
+    private int executeBulk(String pSql, Criteria<T> pCriteria, Map<String, ?> pValues) throws Exception
+    {
+        Connection connection = DbConnectionProvider.getDbConnection();
+        PreparedStatement statement = null;
+
+        try
+        {
+            statement = pValues == null ? statementGenerator.createCriteriaStatement(connection,pSql,pCriteria)
+                    : statementGenerator.createUpdateWhereStatement(connection,pSql,pCriteria,pValues);
+            int updateCount = statement.executeUpdate();
+            // changed rows are not known, so all cached entities of the class are dropped
+            EntityCaches.invalidateAll(pCriteria.getEntityClass());
+            return updateCount;
+        }
+        catch (SQLException e)
+        {
+            throw DbConnectionProvider.evictIfBroken(connection, e);
+        }
+        finally
+        {
+            release(statement, connection);
+        }
+    }
+
+    /**
+     * Saves entities to db using JDBC batches of configured batch size.
+     * One insert statement is reused for all entities, so a batch is sent in one round trip.
+     * Generated ids are set to entities, ids that are generated by db are read back after each batch.
+     *
+     * @param pEntities  the entity objects, they must be instances of the same entity class
+     * @return           update counts of entities in given order, Mysql driver may give
+     *                   {@link java.sql.Statement#SUCCESS_NO_INFO} for rewritten batches
+     * @throws EntityOperationException exceptions that may occur while saving entities to db.
+     *                                  Batches that were sent before the failure are not rolled back.
+     */
+    @Override
+    public int[] saveAll(Collection<T> pEntities) throws EntityOperationException
+    {
+        try
+        {
+            return executeBatch(pEntities, queryGenerator::createInsertQuery, statementGenerator::bindInsertStatement,
+                    true);
+        }
+        catch (Exception e)
+        {
+            throw new EntityOperationException("Entities could not be saved !",e);
+        }
+    }
+
+    /**
+     * Updates entities using JDBC batches of configured batch size.
+     * All columns are written since a batch reuses one statement, snapshots are refreshed after the update.
+     *
+     * @param pEntities  the entity objects, they must be instances of the same entity class
+     * @return           update counts of entities in given order
+     * @throws EntityOperationException exceptions that may occur while updating entities.
+     *                                  Batches that were sent before the failure are not rolled back.
+     */
+    @Override
+    public int[] updateAll(Collection<T> pEntities) throws EntityOperationException
+    {
+        try
+        {
+            int[] updateCounts = executeBatch(pEntities, queryGenerator::createUpdateQuery,
+                    statementGenerator::bindUpdateStatement);
+
+            for(T entity : pEntities)
+            {
+                EntitySnapshots.take(EntityMetadataRegistry.getMetadata(entity.getClass()), entity);
+                EntityCaches.invalidate(entity);
+            }
+
+            return updateCounts;
+        }
+        catch (Exception e)
+        {
+            throw new EntityOperationException("Entities could not be updated !",e);
+        }
+    }
+
+    /**
+     * Removes entities using JDBC batches of configured batch size.
+     *
+     * @param pEntities  the entity objects, they must be instances of the same entity class
+     * @return           update counts of entities in given order
+     * @throws EntityOperationException exceptions that may occur while removing entities.
+     *                                  Batches that were sent before the failure are not rolled back.
+     */
+    @Override
+    public int[] removeAll(Collection<T> pEntities) throws EntityOperationException
+    {
+        try
+        {
+            int[] updateCounts = executeBatch(pEntities, queryGenerator::createDeleteQuery,
+                    statementGenerator::bindDeleteStatement);
+            pEntities.forEach(EntitySnapshots::remove);
+            pEntities.forEach(EntityCaches::invalidate);
+            return updateCounts;
+        }
+        catch (Exception e)
+        {
+            throw new EntityOperationException("Entities could not be removed !",e);
+        }
+    }
+
+    /**
+     * Binds each entity to one prepared statement and executes It in batches of configured size.
+     *
+     * @param pEntities the entity objects of the same entity class
+     * @param pQuery    the query generator method of entity operation, nothing is executed If It gives null
+     * @param pBinder   the statement binder of entity operation
+     * @return          update counts of entities in given order
+     *
+     * @throws Exception sql exceptions, BatchUpdateException If a batch fails
+     */
+    private int[] executeBatch(Collection<T> pEntities, Function<Class<?>,String> pQuery,
+                               BatchBinder<T> pBinder) throws Exception
+    {
+        return executeBatch(pEntities, pQuery, pBinder, false);
+    }
+
+    /**
+     * Binds each entity to one prepared statement and executes It in batches of configured size.
+     *
+     * @param pEntities         the entity objects of the same entity class
+     * @param pQuery            the query generator method of entity operation, nothing is executed If It gives null
+     * @param pBinder           the statement binder of entity operation
+     * @param pReadGeneratedIds true, If ids that are generated by db are read back into entities
+     * @return                  update counts of entities in given order
+     *
+     * @throws Exception sql exceptions, BatchUpdateException If a batch fails
+     */
+    private int[] executeBatch(Collection<T> pEntities, Function<Class<?>,String> pQuery,
+                               BatchBinder<T> pBinder, boolean pReadGeneratedIds) throws Exception
+    {
+        int[] updateCounts = new int[pEntities.size()];
+
+        if(pEntities.isEmpty())
+        {
+            return updateCounts;
+        }
+
+        Class<?> entityClassObject = pEntities.iterator().next().getClass();
+
+        if(!EntityUtil.isEntity(entityClassObject))
+        {
+            logger.log(Level.WARNING,"Class "+entityClassObject.getName()+" is not a entity !" +
+                    " Claas must have @Entity annotation to perform entity operations.");
+            return updateCounts;
+        }
+
+        String sql = pQuery.apply(entityClassObject);
+
+        if(sql == null)
+        {
+            return updateCounts;
+        }
+
+        boolean readIds = pReadGeneratedIds && hasIdentityId(entityClassObject);
+        int batchSize = readIds && !DbConnectionProvider.getDialect().supportsBatchGeneratedKeys() ? 1
+                : DbConnectionProvider.getBatchSize();
+        List<T> pendingEntities = readIds ? new ArrayList<>() : null;
+        Connection connection = DbConnectionProvider.getDbConnection();
+        PreparedStatement statement = null;
+
+        try
+        {
+            statement = StatementCache.prepare(connection, sql, readIds);
+            int executed = 0;
+            int pending = 0;
+
+            for(T entity : pEntities)
+            {
+                if(entity.getClass() != entityClassObject)
+                {
+                    throw new EntityOperationException("All entities of a batch must be instance of "
+                            +entityClassObject.getName()+" ! Found "+entity.getClass().getName());
+                }
+
+                pBinder.bind(statement, entity);
+                statement.addBatch();
+
+                if(pendingEntities != null)
+                {
+                    pendingEntities.add(entity);
+                }
+
+                if(++pending == batchSize)
+                {
+                    executed = flush(statement, updateCounts, executed, pendingEntities);
+                    pending = 0;
+                }
+            }
+
+            if(pending > 0)
+            {
+                flush(statement, updateCounts, executed, pendingEntities);
+            }
+        }
+        catch (SQLException e)
+        {
+            throw DbConnectionProvider.evictIfBroken(connection, e);
+        }
+        finally
+        {
+            release(statement, connection);
+        }
+
+        return updateCounts;
+    }
+
+    /**
+     * Executes pending batch of statement and copies It's update counts.
+     *
+     * @param pStatement       the statement that has pending batch
+     * @param pUpdateCounts    the update counts of all entities
+     * @param pExecuted        the number of entities that were executed before this batch
+     * @param pPendingEntities the entities of pending batch whose generated ids are read, null If not read
+     * @return                 the number of executed entities after this batch
+     *
+     * @throws SQLException                  sql exceptions, {@link java.sql.BatchUpdateException} If batch fails
+     * @throws UnsupportedFieldTypeException Thrown when id field data type is unsupported.
+     */
+    private int flush(PreparedStatement pStatement, int[] pUpdateCounts, int pExecuted, List<T> pPendingEntities)
+            throws SQLException, UnsupportedFieldTypeException
+    {
+        int[] batchCounts = pStatement.executeBatch();
+        System.arraycopy(batchCounts, 0, pUpdateCounts, pExecuted, batchCounts.length);
+
+        if(pPendingEntities != null)
+        {
+            statementGenerator.readGeneratedIds(pStatement, pPendingEntities);
+            pPendingEntities.clear();
+        }
+
+        return pExecuted + batchCounts.length;
+    }
+
+    private boolean hasIdentityId(Class<?> pEntityClassObject)
+    {
+        return EntityMetadataRegistry.getMetadata(pEntityClassObject).getIdStrategy() == GenerationType.IDENTITY;
+    }
+
+    /**
+     * Gives statement back to the statement cache and returns connection to the pool.
+     *
+     * @param pStatement  the executed statement, may be null
+     * @param pConnection the borrowed connection
+     *
+     * @throws SQLException sql exceptions
+     */
+    private void release(PreparedStatement pStatement, Connection pConnection) throws SQLException
+    {
+        try
+        {
+            StatementCache.release(pStatement);
+        }
+        finally
+        {
+            DbConnectionProvider.releaseConnection(pConnection);
+        }
+    }
+
+    /**
+     * Binds an entity to a prepared statement of entity operation.
+     *
+     * @param <T> the entity type
+     */
+    private interface BatchBinder<T>
+    {
+        void bind(PreparedStatement pStatement, T pEntity) throws Exception;
+    }
 }
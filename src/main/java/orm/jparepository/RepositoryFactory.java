@@ -0,0 +1,155 @@
+package orm.jparepository;
+
+import orm.sql.ISqlStatementGenerator;
+import orm.sql.QueryGenerator;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Creates implementations of repository interfaces that extend {@link IJpaRepository}.
+ * Base entity operations are delegated to a {@link JpaRepository}, default methods are called as they are,
+ * other abstract methods are implemented as derived queries parsed from their names.
+ * All methods are resolved when the repository is created, so an invalid method name fails fast.
+ *
+ * <pre>
+ *     interface PersonRepository extends IJpaRepository&lt;Person,Long&gt;
+ *     {
+ *         List&lt;Person&gt; findByNameAndAge(String pName, int pAge);
+ *     }
+ *
+ *     PersonRepository repository = RepositoryFactory.create(PersonRepository.class);
+ * </pre>
+ */
+public class RepositoryFactory
+{
+    /**
+     * Private constructor to prevent object creation of this class.
+     */
+    private RepositoryFactory()
+    {
+
+    }
+
+    /**
+     * Creates repository of given interface using default query and statement generators.
+     *
+     * @param pRepositoryInterface the repository interface
+     * @param <R>                  the repository type
+     * @return                     the repository implementation
+     *
+     * @throws IllegalArgumentException Thrown If a repository method can not be derived.
+     */
+    public static <R extends IJpaRepository<?,?>> R create(Class<R> pRepositoryInterface)
+    {
+        return create(pRepositoryInterface,
+                new JpaRepository<>(new QueryGenerator<>(), new ISqlStatementGenerator<>()));
+    }
+
+    /**
+     * Creates repository of given interface that delegates base entity operations to given repository.
+     *
+     * @param pRepositoryInterface the repository interface
+     * @param pDelegate            the repository that performs base entity operations
+     * @param <R>                  the repository type
+     * @return                     the repository implementation
+     *
+     * @throws IllegalArgumentException Thrown If a repository method can not be derived.
+     */
+    public static <R extends IJpaRepository<?,?>> R create(Class<R> pRepositoryInterface, IJpaRepository<?,?> pDelegate)
+    {
+        if(!pRepositoryInterface.isInterface())
+        {
+            throw new IllegalArgumentException(pRepositoryInterface.getName()+" is not an interface !");
+        }
+
+        Class<?> entityClass = findEntityClass(pRepositoryInterface);
+
+        if(entityClass == null)
+        {
+            throw new IllegalArgumentException(pRepositoryInterface.getName()
+                    +" must extend IJpaRepository with a concrete entity type !");
+        }
+
+        RepositoryInvocationHandler handler = new RepositoryInvocationHandler(pRepositoryInterface, entityClass,
+                pDelegate);
+        return pRepositoryInterface.cast(Proxy.newProxyInstance(pRepositoryInterface.getClassLoader(),
+                new Class<?>[]{pRepositoryInterface}, handler));
+    }
+
+    /**
+     * Finds entity type argument of IJpaRepository in the interface hierarchy.
+     *
+     * @param pType the repository type
+     * @return      the entity class, null If It is not found
+     */
+    private static Class<?> findEntityClass(Type pType)
+    {
+        return findEntityClass(pType, Collections.emptyMap());
+    }
+
+    /**
+     * Finds entity type argument of IJpaRepository in the interface hierarchy,
+     * type variables of generic base repositories are resolved with the type arguments of their sub interfaces.
+     *
+     * @param pType     the repository type
+     * @param pBindings the type arguments of type variables of given type
+     * @return          the entity class, null If It is not found
+     */
+    private static Class<?> findEntityClass(Type pType, Map<TypeVariable<?>, Type> pBindings)
+    {
+        Class<?> rawType;
+        Map<TypeVariable<?>, Type> bindings = Collections.emptyMap();
+
+        if(pType instanceof ParameterizedType)
+        {
+            ParameterizedType parameterizedType = (ParameterizedType) pType;
+            rawType = (Class<?>) parameterizedType.getRawType();
+            Type[] typeArguments = parameterizedType.getActualTypeArguments();
+
+            if(rawType == IJpaRepository.class)
+            {
+                Type entityType = resolve(typeArguments[0], pBindings);
+                return entityType instanceof Class ? (Class<?>) entityType : null;
+            }
+
+            bindings = new HashMap<>();
+            TypeVariable<?>[] typeParameters = rawType.getTypeParameters();
+
+            for(int i = 0; i < typeParameters.length; i++)
+            {
+                bindings.put(typeParameters[i], resolve(typeArguments[i], pBindings));
+            }
+        }
+        else if(pType instanceof Class)
+        {
+            rawType = (Class<?>) pType;
+        }
+        else
+        {
+            return null;
+        }
+
+        for(Type superInterface : rawType.getGenericInterfaces())
+        {
+            Class<?> entityClass = findEntityClass(superInterface, bindings);
+
+            if(entityClass != null)
+            {
+                return entityClass;
+            }
+        }
+
+        return null;
+    }
+
+    private static Type resolve(Type pType, Map<TypeVariable<?>, Type> pBindings)
+    {
+        return pType instanceof TypeVariable ? pBindings.getOrDefault(pType, pType) : pType;
+    }
+}
@@ -0,0 +1,136 @@
+package orm.jparepository;
+
+import orm.exception.EntityOperationException;
+import orm.exception.UncheckedEntityOperationException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Invocation handler of repository proxies.
+ * Each interface method is bound to an invoker when the proxy is created,
+ * so a call is a map lookup followed by the base operation, default method or derived query.
+ */
+class RepositoryInvocationHandler implements InvocationHandler
+{
+    private final Class<?> repositoryInterface;
+    private final Map<Method, MethodInvoker> invokers = new HashMap<>();
+
+    RepositoryInvocationHandler(Class<?> pRepositoryInterface, Class<?> pEntityClass, IJpaRepository<?,?> pDelegate)
+    {
+        this.repositoryInterface = pRepositoryInterface;
+
+        for(Method method : pRepositoryInterface.getMethods())
+        {
+            invokers.put(method, createInvoker(method, pEntityClass, pDelegate));
+        }
+    }
+
+    @Override
+    public Object invoke(Object pProxy, Method pMethod, Object[] pArgs) throws Throwable
+    {
+        MethodInvoker invoker = invokers.get(pMethod);
+
+        if(invoker != null)
+        {
+            return invoker.invoke(pProxy, pArgs);
+        }
+
+        switch (pMethod.getName())
+        {
+            case "equals":
+                return pProxy == pArgs[0];
+            case "hashCode":
+                return System.identityHashCode(pProxy);
+            case "toString":
+                return repositoryInterface.getSimpleName()+" repository";
+            default:
+                throw new UnsupportedOperationException(pMethod.toString());
+        }
+    }
+
+    private MethodInvoker createInvoker(Method pMethod, Class<?> pEntityClass, IJpaRepository<?,?> pDelegate)
+    {
+        if(pMethod.getDeclaringClass().isInstance(pDelegate))
+        {
+            return (proxy, args) -> {
+                try
+                {
+                    return pMethod.invoke(pDelegate, args);
+                }
+                catch (InvocationTargetException e)
+                {
+                    throw e.getCause();
+                }
+            };
+        }
+
+        if(pMethod.isDefault())
+        {
+            MethodHandle handle = defaultMethodHandle(pMethod);
+            return (proxy, args) -> handle.bindTo(proxy).invokeWithArguments(args == null ? new Object[0] : args);
+        }
+
+        if(Modifier.isStatic(pMethod.getModifiers()))
+        {
+            return null;
+        }
+
+        DerivedQuery query = DerivedQuery.of(pMethod, pEntityClass);
+        boolean checked = throwsEntityOperationException(pMethod);
+
+        return (proxy, args) -> {
+            try
+            {
+                return query.execute(args);
+            }
+            catch (Exception e)
+            {
+                EntityOperationException exception = new EntityOperationException("Query could not be executed ! "
+                        +query.getSql(), e);
+                throw checked ? exception : new UncheckedEntityOperationException(exception);
+            }
+        };
+    }
+
+    private static MethodHandle defaultMethodHandle(Method pMethod)
+    {
+        try
+        {
+            Class<?> declaringClass = pMethod.getDeclaringClass();
+            return MethodHandles.privateLookupIn(declaringClass, MethodHandles.lookup())
+                    .unreflectSpecial(pMethod, declaringClass);
+        }
+        catch (IllegalAccessException e)
+        {
+            throw new IllegalArgumentException(pMethod+" default method can not be accessed !", e);
+        }
+    }
+
+    private static boolean throwsEntityOperationException(Method pMethod)
+    {
+        for(Class<?> exceptionType : pMethod.getExceptionTypes())
+        {
+            if(exceptionType.isAssignableFrom(EntityOperationException.class))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Calls a repository method on behalf of the proxy.
+     */
+    private interface MethodInvoker
+    {
+        Object invoke(Object pProxy, Object[] pArgs) throws Throwable;
+    }
+}
@@ -0,0 +1,54 @@
+package orm.jparepository;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A page of entities read with keyset pagination.
+ * Next page is requested with the last id of this page instead of a row offset.
+ *
+ * @param <T> the entity type
+ */
+public class Slice<T>
+{
+    private final List<T> content;
+    private final boolean hasNext;
+    private final Object lastId;
+
+    public Slice(List<T> pContent, boolean pHasNext, Object pLastId)
+    {
+        this.content = Collections.unmodifiableList(pContent);
+        this.hasNext = pHasNext;
+        this.lastId = pLastId;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    /**
+     * Checks whether there are more entities after this page.
+     *
+     * @return true If next page has at least one entity
+     */
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    /**
+     * Gets id of the last entity of this page, It is the afterId of next page.
+     *
+     * @param <ID> the entity id type
+     * @return     the last id, null If page is empty
+     */
+    @SuppressWarnings("unchecked")
+    public <ID> ID getLastId() {
+        return (ID) lastId;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Slice{size=" + content.size() + ", hasNext=" + hasNext + ", lastId=" + lastId + '}';
+    }
+}
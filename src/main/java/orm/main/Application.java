@@ -1,10 +1,12 @@
 package orm.main;
 
 import annotations.EnableTableCreation;
+import orm.connection.DbConnectionProvider;
 import orm.entity.Person;
 import orm.exception.EntityOperationException;
 import orm.initializer.DbTableInitializer;
 import orm.jparepository.JpaRepository;
+import orm.session.Session;
 import orm.sql.*;
 
 import java.util.List;
@@ -14,13 +16,8 @@ public class Application
 {
     /**
      * In this example orm framework project we focussed on concept of orm, reflection and custom annotations.
-     * You should remove your db table of Person entity before run
-     * this test class since Id generator starts from 0 when application restarted.
-     * So If u try to run without cleaning your table you will get exception
-     * since app will try yo save person entities with same entity id(PK)
-     * just because id generator starts from 0 when you restart app.
-     * If u want to solve this problem you have to change Id generator structure.
-     * In this example project, we focused on orm framework development, not id generation.
+     * Ids of Person entity are reserved in blocks from "orm_sequence" table, so the app can be run
+     * again without removing your db table of Person entity.
      * This is an example project, so you can enhance all part of project.
      */
     public static void main(String[] args) throws Exception
@@ -48,17 +45,26 @@ public class Application
         // findById example
         System.out.println();
         System.out.println("*** FIND BY ID ***");
-        Person p3 = personRepository.findById(Person.class,3L);
+        Person p3 = personRepository.findById(Person.class, person3.getId());
         System.out.println(p3.toString());
 
+        // session example, repeated lookups of an id give the same instance with one query
+        try (Session session = new Session())
+        {
+            System.out.println();
+            System.out.println("*** SESSION FIND BY ID ***");
+            Person sessionPerson = session.find(Person.class, p3.getId());
+            System.out.println("same instance : "+(sessionPerson == session.find(Person.class, p3.getId())));
+        }
+
         // print db after insert
         System.out.println();
         System.out.println("**** AFTER INSERT ****");
         printAllPersonInDb(personRepository);
 
 
-        // update age of person , Person id = 1
-        Person p1 = personRepository.findById(Person.class, 1L);
+        // update age of person1
+        Person p1 = personRepository.findById(Person.class, person1.getId());
         p1.setAge(99);
         personRepository.update(p1);
 
@@ -73,6 +79,7 @@ public class Application
         personRepository.remove(p3);
         printAllPersonInDb(personRepository);
 
+        DbConnectionProvider.shutdown();
 
     }
 
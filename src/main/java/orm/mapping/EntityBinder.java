@@ -0,0 +1,38 @@
+package orm.mapping;
+
+import orm.exception.UnsupportedFieldTypeException;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Binds field values of an entity to prepared statement parameters.
+ * Implementations are generated at compile time for each @Entity If possible,
+ * otherwise {@link ReflectionEntityBinder} is used.
+ *
+ * @param <T> the entity type
+ */
+public interface EntityBinder<T>
+{
+    /**
+     * Binds @Column fields of entity in declaration order, id is not bound.
+     *
+     * @param pStatement  the prepared statement
+     * @param pEntity     the entity object
+     * @param pStartIndex the parameter index of first column
+     * @return            the parameter index after the last bound column
+     *
+     * @throws SQLException                  sql exceptions
+     * @throws UnsupportedFieldTypeException Thrown when a field data type is unsupported.
+     */
+    int bindColumns(PreparedStatement pStatement, T pEntity, int pStartIndex)
+            throws SQLException, UnsupportedFieldTypeException;
+
+    /**
+     * Gets @Id field value of entity.
+     *
+     * @param pEntity the entity object
+     * @return        the id value, may be null
+     */
+    Object getId(T pEntity);
+}
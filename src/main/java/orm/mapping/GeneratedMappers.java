@@ -0,0 +1,114 @@
+package orm.mapping;
+
+import java.lang.reflect.Field;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Finds classes generated by {@link orm.processor.EntityProcessor} for an entity.
+ * Generated classes are placed in the package of entity and named with
+ * entity simple name and a suffix, e.g. Person_Mapper, Person_Binder and Person_Sql.
+ */
+public class GeneratedMappers
+{
+    private static final Logger logger = Logger.getLogger(GeneratedMappers.class.getSimpleName());
+
+    public static final String MAPPER_SUFFIX = "_Mapper";
+    public static final String BINDER_SUFFIX = "_Binder";
+    public static final String SQL_SUFFIX = "_Sql";
+
+    /**
+     * Private constructor to prevent object creation of this class.
+     */
+    private GeneratedMappers()
+    {
+
+    }
+
+    /**
+     * Finds generated row mapper of entity.
+     *
+     * @param pEntityClassObject the entity class object
+     * @param <T>                the entity type
+     * @return                   the generated mapper, null If not generated
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> RowMapper<T> findRowMapper(Class<?> pEntityClassObject)
+    {
+        return (RowMapper<T>) newInstance(pEntityClassObject, MAPPER_SUFFIX);
+    }
+
+    /**
+     * Finds generated binder of entity.
+     *
+     * @param pEntityClassObject the entity class object
+     * @param <T>                the entity type
+     * @return                   the generated binder, null If not generated
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> EntityBinder<T> findBinder(Class<?> pEntityClassObject)
+    {
+        return (EntityBinder<T>) newInstance(pEntityClassObject, BINDER_SUFFIX);
+    }
+
+    /**
+     * Finds generated sql constant of entity.
+     *
+     * @param pEntityClassObject the entity class object
+     * @param pConstantName      the constant name, e.g. INSERT
+     * @return                   the sql query, null If not generated
+     */
+    public static String findSql(Class<?> pEntityClassObject, String pConstantName)
+    {
+        Class<?> sqlClass = findClass(pEntityClassObject, SQL_SUFFIX);
+
+        if(sqlClass == null)
+        {
+            return null;
+        }
+
+        try
+        {
+            Field field = sqlClass.getField(pConstantName);
+            return (String) field.get(null);
+        }
+        catch (NoSuchFieldException | IllegalAccessException e)
+        {
+            logger.log(Level.WARNING,pConstantName+" constant of "+sqlClass.getName()+" could not be read !",e);
+            return null;
+        }
+    }
+
+    private static Object newInstance(Class<?> pEntityClassObject, String pSuffix)
+    {
+        Class<?> generatedClass = findClass(pEntityClassObject, pSuffix);
+
+        if(generatedClass == null)
+        {
+            return null;
+        }
+
+        try
+        {
+            return generatedClass.getDeclaredConstructor().newInstance();
+        }
+        catch (ReflectiveOperationException | LinkageError e)
+        {
+            logger.log(Level.WARNING,generatedClass.getName()+" could not be created !" +
+                    " Reflection will be used for "+pEntityClassObject.getName(),e);
+            return null;
+        }
+    }
+
+    private static Class<?> findClass(Class<?> pEntityClassObject, String pSuffix)
+    {
+        try
+        {
+            return Class.forName(pEntityClassObject.getName() + pSuffix, true, pEntityClassObject.getClassLoader());
+        }
+        catch (ClassNotFoundException e)
+        {
+            return null;
+        }
+    }
+}
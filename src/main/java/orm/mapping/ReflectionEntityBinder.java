@@ -0,0 +1,46 @@
+package orm.mapping;
+
+import orm.exception.UnsupportedFieldTypeException;
+import orm.metadata.ColumnMetadata;
+import orm.metadata.EntityMetadata;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Entity binder that uses cached field accessors of entity metadata.
+ * It is used when no generated binder exists for the entity.
+ *
+ * @param <T> the entity type
+ */
+public class ReflectionEntityBinder<T> implements EntityBinder<T>
+{
+    private final EntityMetadata metadata;
+
+    public ReflectionEntityBinder(EntityMetadata pMetadata)
+    {
+        this.metadata = pMetadata;
+    }
+
+    @Override
+    public int bindColumns(PreparedStatement pStatement, T pEntity, int pStartIndex)
+            throws SQLException, UnsupportedFieldTypeException
+    {
+        int paramIndex = pStartIndex;
+
+        for(ColumnMetadata column : metadata.getColumns())
+        {
+            column.bind(pStatement, paramIndex, pEntity);
+            paramIndex++;
+        }
+
+        return paramIndex;
+    }
+
+    @Override
+    public Object getId(T pEntity)
+    {
+        ColumnMetadata idColumn = metadata.getIdColumn();
+        return idColumn == null ? null : idColumn.getValue(pEntity);
+    }
+}
@@ -0,0 +1,41 @@
+package orm.mapping;
+
+import orm.exception.UnsupportedFieldTypeException;
+import orm.metadata.ColumnMetadata;
+import orm.metadata.EntityMetadata;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Row mapper that uses cached field accessors of entity metadata.
+ * It is used when no generated mapper exists for the entity.
+ *
+ * @param <T> the entity type
+ */
+public class ReflectionRowMapper<T> implements RowMapper<T>
+{
+    private final EntityMetadata metadata;
+
+    public ReflectionRowMapper(EntityMetadata pMetadata)
+    {
+        this.metadata = pMetadata;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T mapRow(ResultSet pResultSet, int[] pColumnIndexes)
+            throws SQLException, InstantiationException, UnsupportedFieldTypeException
+    {
+        T entity = (T) metadata.newInstance();
+        List<ColumnMetadata> columns = metadata.getAllColumns();
+
+        for(int i = 0; i < pColumnIndexes.length; i++)
+        {
+            columns.get(i).read(pResultSet, pColumnIndexes[i], entity);
+        }
+
+        return entity;
+    }
+}
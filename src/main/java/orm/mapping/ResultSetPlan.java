@@ -0,0 +1,68 @@
+package orm.mapping;
+
+import orm.metadata.ColumnMetadata;
+import orm.metadata.EntityMetadata;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Resolves result set column positions of entity columns.
+ * Positions are resolved once per result set using {@link ResultSetMetaData},
+ * then rows are read by index, so the driver does not search column names for every cell.
+ */
+public class ResultSetPlan
+{
+    /**
+     * Private constructor to prevent object creation of this class.
+     */
+    private ResultSetPlan()
+    {
+
+    }
+
+    /**
+     * Resolves 1-based result set column indexes of all entity columns.
+     * Index at position i belongs to i'th column of {@link EntityMetadata#getAllColumns()}.
+     *
+     * @param pResultSet the result set
+     * @param pMetadata  the entity metadata
+     * @return           the column indexes
+     *
+     * @throws SQLException Thrown If result set has no column for an entity column.
+     */
+    public static int[] resolve(ResultSet pResultSet, EntityMetadata pMetadata) throws SQLException
+    {
+        ResultSetMetaData resultSetMetaData = pResultSet.getMetaData();
+        int columnCount = resultSetMetaData.getColumnCount();
+        Map<String, Integer> positions = new HashMap<>();
+
+        for(int i = columnCount; i >= 1; i--)
+        {
+            positions.put(resultSetMetaData.getColumnLabel(i).toLowerCase(Locale.ROOT), i);
+        }
+
+        List<ColumnMetadata> columns = pMetadata.getAllColumns();
+        int[] columnIndexes = new int[columns.size()];
+
+        for(int i = 0; i < columnIndexes.length; i++)
+        {
+            Integer position = positions.get(columns.get(i).getName().toLowerCase(Locale.ROOT));
+
+            if(position == null)
+            {
+                throw new SQLException("Column "+columns.get(i).getName()+" of "
+                        +pMetadata.getEntityClass().getName()+" not found in the result set !");
+            }
+
+            columnIndexes[i] = position;
+        }
+
+        return columnIndexes;
+    }
+}
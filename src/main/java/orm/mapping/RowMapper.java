@@ -0,0 +1,30 @@
+package orm.mapping;
+
+import orm.exception.UnsupportedFieldTypeException;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps current row of a result set to an entity object.
+ * Implementations are generated at compile time for each @Entity If possible,
+ * otherwise {@link ReflectionRowMapper} is used.
+ *
+ * @param <T> the entity type
+ */
+public interface RowMapper<T>
+{
+    /**
+     * Maps current row to entity, columns are read by index.
+     *
+     * @param pResultSet     the result set positioned on a row
+     * @param pColumnIndexes the column indexes resolved by {@link ResultSetPlan#resolve}
+     * @return               the mapped entity object
+     *
+     * @throws SQLException                  sql exceptions
+     * @throws InstantiationException        Thrown If entity can not be created.
+     * @throws UnsupportedFieldTypeException Thrown when a field data type is unsupported.
+     */
+    T mapRow(ResultSet pResultSet, int[] pColumnIndexes)
+            throws SQLException, InstantiationException, UnsupportedFieldTypeException;
+}
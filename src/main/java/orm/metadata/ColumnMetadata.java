@@ -0,0 +1,142 @@
+package orm.metadata;
+
+import orm.exception.UnsupportedFieldTypeException;
+import orm.types.TypeHandler;
+import orm.types.TypeHandlerRegistry;
+
+import java.lang.reflect.Field;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Mapping info of an entity field to a table column.
+ * Field accessor is created once when metadata is created.
+ */
+public class ColumnMetadata
+{
+    private final Field field;
+    private final String name;
+    private final TypeHandler<?> typeHandler;
+    private final boolean id;
+    private final FieldAccessor accessor;
+
+    public ColumnMetadata(Field pField, boolean pId) throws IllegalAccessException
+    {
+        this.field = pField;
+        this.name = pField.getName();
+        this.typeHandler = TypeHandlerRegistry.find(pField.getType());
+        this.id = pId;
+        this.accessor = new FieldAccessor(pField);
+    }
+
+    /**
+     * Gets field value of given entity.
+     *
+     * @param pEntity the entity object
+     * @return        the field value
+     */
+    public Object getValue(Object pEntity)
+    {
+        return accessor.get(pEntity);
+    }
+
+    /**
+     * Sets field value of given entity.
+     *
+     * @param pEntity the entity object
+     * @param pValue  the field value
+     */
+    public void setValue(Object pEntity, Object pValue)
+    {
+        accessor.set(pEntity, pValue);
+    }
+
+    /**
+     * Binds field value of entity to given parameter index of statement.
+     *
+     * @param pStatement the prepared statement
+     * @param pIndex     the parameter index
+     * @param pEntity    the entity object
+     *
+     * @throws SQLException                  sql exceptions
+     * @throws UnsupportedFieldTypeException Thrown when field data type is unsupported.
+     */
+    public void bind(PreparedStatement pStatement, int pIndex, Object pEntity)
+            throws SQLException, UnsupportedFieldTypeException
+    {
+        getTypeHandler().bindField(pStatement, pIndex, accessor, pEntity);
+    }
+
+    /**
+     * Binds given value of this column to given parameter index of statement,
+     * It is used for query parameters that are not read from an entity.
+     *
+     * @param pStatement the prepared statement
+     * @param pIndex     the parameter index
+     * @param pValue     the value, instance of field type or It's wrapper
+     *
+     * @throws SQLException                  sql exceptions
+     * @throws UnsupportedFieldTypeException Thrown when field data type is unsupported.
+     */
+    @SuppressWarnings("unchecked")
+    public void bindValue(PreparedStatement pStatement, int pIndex, Object pValue)
+            throws SQLException, UnsupportedFieldTypeException
+    {
+        ((TypeHandler<Object>) getTypeHandler()).bind(pStatement, pIndex, pValue);
+    }
+
+    /**
+     * Reads this column from current row of result set into entity field.
+     *
+     * @param pResultSet   the result set
+     * @param pColumnIndex the 1-based column index of this column in the result set
+     * @param pEntity      the entity object
+     *
+     * @throws SQLException                  sql exceptions
+     * @throws UnsupportedFieldTypeException Thrown when field data type is unsupported.
+     */
+    public void read(ResultSet pResultSet, int pColumnIndex, Object pEntity)
+            throws SQLException, UnsupportedFieldTypeException
+    {
+        getTypeHandler().readField(pResultSet, pColumnIndex, accessor, pEntity);
+    }
+
+    /**
+     * Gets type handler of field.
+     *
+     * @return the type handler
+     *
+     * @throws UnsupportedFieldTypeException Thrown when field data type is unsupported.
+     */
+    public TypeHandler<?> getTypeHandler() throws UnsupportedFieldTypeException
+    {
+        if(typeHandler == null)
+        {
+            throw new UnsupportedFieldTypeException(name+" field of "+field.getDeclaringClass().getName()
+                    +" type is unsupported! "+field.getType());
+        }
+
+        return typeHandler;
+    }
+
+    public FieldAccessor getAccessor() {
+        return accessor;
+    }
+
+    public Field getField() {
+        return field;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Class<?> getType() {
+        return field.getType();
+    }
+
+    public boolean isId() {
+        return id;
+    }
+}
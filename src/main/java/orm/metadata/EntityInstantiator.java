@@ -0,0 +1,109 @@
+package orm.metadata;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Creates entity objects using no-arg constructor of entity class.
+ * Constructor is bound to a {@link Supplier} spun by {@link LambdaMetafactory} once per entity class,
+ * so creating an entity is a plain interface call instead of {@link Class#newInstance()}.
+ */
+public final class EntityInstantiator
+{
+    private static final Logger logger = Logger.getLogger(EntityInstantiator.class.getSimpleName());
+
+    private final Class<?> entityClass;
+    private final Supplier<Object> supplier;
+    private final MethodHandle constructor;
+
+    /**
+     * Creates instantiator of given entity class.
+     * If class has no no-arg constructor, {@link #newInstance()} throws InstantiationException.
+     *
+     * @param pEntityClass the entity class object
+     */
+    public EntityInstantiator(Class<?> pEntityClass)
+    {
+        this.entityClass = pEntityClass;
+        MethodHandle foundConstructor = null;
+        Supplier<Object> createdSupplier = null;
+
+        try
+        {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(pEntityClass, MethodHandles.lookup());
+            foundConstructor = lookup.findConstructor(pEntityClass, MethodType.methodType(void.class));
+            createdSupplier = createSupplier(lookup, foundConstructor);
+        }
+        catch (NoSuchMethodException | IllegalAccessException e)
+        {
+            logger.log(Level.FINE,pEntityClass.getName()+" has no accessible no-arg constructor !",e);
+        }
+
+        this.constructor = foundConstructor == null ? null
+                : foundConstructor.asType(MethodType.methodType(Object.class));
+        this.supplier = createdSupplier;
+    }
+
+    /**
+     * Creates new entity object.
+     *
+     * @return the entity object
+     *
+     * @throws InstantiationException Thrown If entity class has no no-arg constructor or constructor fails.
+     */
+    public Object newInstance() throws InstantiationException
+    {
+        if(supplier != null)
+        {
+            return supplier.get();
+        }
+
+        if(constructor == null)
+        {
+            throw new InstantiationException(entityClass.getName()+" has no no-arg constructor !");
+        }
+
+        try
+        {
+            return constructor.invokeExact();
+        }
+        catch (Throwable e)
+        {
+            InstantiationException exception = new InstantiationException(entityClass.getName()
+                    +" could not be instantiated !");
+            exception.initCause(e);
+            throw exception;
+        }
+    }
+
+    /**
+     * Spins a supplier that calls the constructor directly.
+     * Method handle invocation is used If supplier can not be spun.
+     *
+     * @param pLookup      the private lookup of entity class
+     * @param pConstructor the no-arg constructor handle
+     * @return             the supplier, null If It could not be created
+     */
+    @SuppressWarnings("unchecked")
+    private Supplier<Object> createSupplier(MethodHandles.Lookup pLookup, MethodHandle pConstructor)
+    {
+        try
+        {
+            CallSite site = LambdaMetafactory.metafactory(pLookup, "get",
+                    MethodType.methodType(Supplier.class), MethodType.methodType(Object.class),
+                    pConstructor, MethodType.methodType(entityClass));
+            return (Supplier<Object>) site.getTarget().invokeExact();
+        }
+        catch (Throwable e)
+        {
+            logger.log(Level.FINE,"Constructor supplier could not be created for "+entityClass.getName(),e);
+            return null;
+        }
+    }
+}
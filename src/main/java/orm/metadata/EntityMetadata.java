@@ -0,0 +1,430 @@
+package orm.metadata;
+
+import annotations.GenerationType;
+import annotations.Id;
+import orm.dialect.Dialect;
+import orm.mapping.EntityBinder;
+import orm.mapping.GeneratedMappers;
+import orm.mapping.ReflectionEntityBinder;
+import orm.mapping.ReflectionRowMapper;
+import orm.mapping.RowMapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable mapping info of an entity class.
+ * It holds the id column, ordered columns, row mapper, binder and base entity operation queries,
+ * so reflection and query building are done once per entity class.
+ * Mapper, binder and queries generated by the entity annotation processor are used If present.
+ * Table name is the lower case simple name of entity class in all queries.
+ * Instances are created and cached by {@link EntityMetadataRegistry}.
+ */
+public class EntityMetadata
+{
+    private static final String INSERT_INTO = "INSERT INTO ";
+    private static final String VALUES = " VALUES";
+    private static final String BASE_SELECT = "SELECT * FROM ";
+    private static final String WHERE = " WHERE ";
+    private static final String DELETE = "DELETE FROM ";
+    private static final String UPDATE = "UPDATE ";
+    private static final String SET = " SET ";
+    private static final String ORDER_BY = " ORDER BY ";
+    private static final String LIMIT = " LIMIT ?";
+
+    /** The largest IN list of a multi-get query, larger id lists are split into chunks of this size. */
+    public static final int MAX_IN_LIST_SIZE = 256;
+
+    private final Class<?> entityClass;
+    private final String tableName;
+    private final ColumnMetadata idColumn;
+    private final GenerationType idStrategy;
+    private final List<ColumnMetadata> columns;
+    private final List<ColumnMetadata> allColumns;
+    private final Map<String, ColumnMetadata> columnsByName;
+    private final EntityInstantiator instantiator;
+    private final RowMapper<?> rowMapper;
+    private final EntityBinder<?> binder;
+
+    private final String insertSql;
+    private final String identityInsertSql;
+    private final String findByIdSql;
+    private final String findAllSql;
+    private final String updateSql;
+    private final String deleteSql;
+    private final String findFirstPageSql;
+    private final String findPageSql;
+    private final String[] findByIdsSqls;
+    private final Map<Long, String> partialUpdateSqls = new ConcurrentHashMap<>();
+    private final Map<String, String> upsertSqls = new ConcurrentHashMap<>();
+
+    /**
+     * Creates metadata and builds base queries of entity.
+     *
+     * @param pEntityClass the entity class object
+     * @param pIdColumn    the @Id column, may be null
+     * @param pColumns     the @Column columns in field declaration order
+     *
+     * @throws IllegalStateException Thrown If ids are generated and id field is not long or Long.
+     */
+    EntityMetadata(Class<?> pEntityClass, ColumnMetadata pIdColumn, List<ColumnMetadata> pColumns)
+    {
+        this.entityClass = pEntityClass;
+        this.tableName = pEntityClass.getSimpleName().toLowerCase(Locale.ROOT);
+        this.idColumn = pIdColumn;
+        this.idStrategy = pIdColumn == null ? null : pIdColumn.getField().getAnnotation(Id.class).strategy();
+
+        // pooled, snowflake and identity ids are long values, other id types must be assigned
+        if(idStrategy != null && idStrategy != GenerationType.ASSIGNED
+                && pIdColumn.getType() != long.class && pIdColumn.getType() != Long.class)
+        {
+            throw new IllegalStateException("Id of "+pEntityClass.getName()+" is "+pIdColumn.getType().getName()
+                    +" ! "+idStrategy+" ids must be long or Long, use "+GenerationType.ASSIGNED+" for other id types.");
+        }
+        this.columns = Collections.unmodifiableList(new ArrayList<>(pColumns));
+
+        List<ColumnMetadata> all = new ArrayList<>();
+
+        if(pIdColumn != null)
+        {
+            all.add(pIdColumn);
+        }
+
+        all.addAll(pColumns);
+        this.allColumns = Collections.unmodifiableList(all);
+        this.columnsByName = new HashMap<>();
+
+        for(ColumnMetadata column : all)
+        {
+            columnsByName.put(column.getName(), column);
+        }
+
+        this.instantiator = new EntityInstantiator(pEntityClass);
+
+        RowMapper<?> generatedMapper = GeneratedMappers.findRowMapper(pEntityClass);
+        EntityBinder<?> generatedBinder = GeneratedMappers.findBinder(pEntityClass);
+        this.rowMapper = generatedMapper != null ? generatedMapper : new ReflectionRowMapper<>(this);
+        this.binder = generatedBinder != null ? generatedBinder : new ReflectionEntityBinder<>(this);
+
+        String idName = getIdColumnName();
+        this.insertSql = generatedSqlOr("INSERT", buildInsertSql(allColumns));
+        this.identityInsertSql = idStrategy == GenerationType.IDENTITY ? buildInsertSql(columns) : null;
+        this.findByIdSql = generatedSqlOr("FIND_BY_ID", BASE_SELECT + tableName + WHERE + idName + "=?");
+        this.findAllSql = generatedSqlOr("FIND_ALL", BASE_SELECT + tableName);
+        this.updateSql = generatedSqlOr("UPDATE", buildUpdateSql(idName));
+        this.deleteSql = generatedSqlOr("DELETE", DELETE + tableName + WHERE + idName + "=?");
+        this.findFirstPageSql = idName == null ? null : BASE_SELECT + tableName + ORDER_BY + idName + LIMIT;
+        this.findPageSql = idName == null ? null
+                : BASE_SELECT + tableName + WHERE + idName + ">?" + ORDER_BY + idName + LIMIT;
+        this.findByIdsSqls = buildFindByIdsSqls(idName);
+    }
+
+    private String generatedSqlOr(String pConstantName, String pBuiltSql)
+    {
+        String generatedSql = GeneratedMappers.findSql(entityClass, pConstantName);
+        return generatedSql != null ? generatedSql : pBuiltSql;
+    }
+
+    /**
+     * Builds insert query of given columns, id column is the first parameter If It is given.
+     *
+     * @param pColumns the inserted columns
+     * @return         the insert query, null If there is no column
+     */
+    private String buildInsertSql(List<ColumnMetadata> pColumns)
+    {
+        if(pColumns.isEmpty())
+        {
+            return null;
+        }
+
+        StringBuilder qMarks = new StringBuilder(VALUES);
+        StringBuilder values = new StringBuilder(tableName);
+
+        for(int i = 0; i < pColumns.size(); i++)
+        {
+            qMarks.append(i == 0 ? "(?" : ",?");
+            values.append(i == 0 ? "(" : ",").append(pColumns.get(i).getName());
+        }
+
+        qMarks.append(")");
+        values.append(")");
+        return INSERT_INTO + values + qMarks;
+    }
+
+    /**
+     * Builds update query, id column is the last parameter.
+     *
+     * @param pIdName the id column name
+     * @return        the update query
+     */
+    private String buildUpdateSql(String pIdName)
+    {
+        StringBuilder values = new StringBuilder();
+
+        for(int i = 0; i < columns.size(); i++)
+        {
+            if(i != 0)
+            {
+                values.append(",");
+            }
+
+            values.append(columns.get(i).getName()).append("=?");
+        }
+
+        return UPDATE + tableName + SET + values + WHERE + pIdName + "=?";
+    }
+
+    /**
+     * Builds multi-get queries for every IN list arity, arities are the powers of two up to
+     * {@link #MAX_IN_LIST_SIZE}. Only a few distinct queries exist per entity,
+     * so they stay in the statement cache.
+     *
+     * @param pIdName the id column name
+     * @return        the queries indexed by log2 of arity, null If entity has no id
+     */
+    private String[] buildFindByIdsSqls(String pIdName)
+    {
+        if(pIdName == null)
+        {
+            return null;
+        }
+
+        String[] sqls = new String[Integer.numberOfTrailingZeros(MAX_IN_LIST_SIZE) + 1];
+
+        for(int i = 0; i < sqls.length; i++)
+        {
+            StringBuilder sql = new StringBuilder(BASE_SELECT).append(tableName).append(WHERE)
+                    .append(pIdName).append(" IN (?");
+
+            for(int j = 1; j < (1 << i); j++)
+            {
+                sql.append(",?");
+            }
+
+            sqls[i] = sql.append(")").toString();
+        }
+
+        return sqls;
+    }
+
+    /**
+     * Gets IN list arity of a multi-get query that has given number of ids.
+     * Ids are padded up to the next power of two, so that a few query shapes serve every size.
+     *
+     * @param pIdCount the number of ids, between 1 and {@link #MAX_IN_LIST_SIZE}
+     * @return         the arity of IN list
+     */
+    public static int inListArity(int pIdCount)
+    {
+        return pIdCount <= 1 ? 1 : Integer.highestOneBit(pIdCount - 1) << 1;
+    }
+
+    /**
+     * Creates new entity object using no-arg constructor of entity.
+     *
+     * @return the entity object
+     *
+     * @throws InstantiationException Thrown If entity has no no-arg constructor.
+     */
+    public Object newInstance() throws InstantiationException
+    {
+        return instantiator.newInstance();
+    }
+
+    /**
+     * Gets row mapper of entity, generated mapper If present.
+     *
+     * @param <T> the entity type
+     * @return    the row mapper
+     */
+    @SuppressWarnings("unchecked")
+    public <T> RowMapper<T> getRowMapper() {
+        return (RowMapper<T>) rowMapper;
+    }
+
+    /**
+     * Gets binder of entity, generated binder If present.
+     *
+     * @param <T> the entity type
+     * @return    the entity binder
+     */
+    @SuppressWarnings("unchecked")
+    public <T> EntityBinder<T> getBinder() {
+        return (EntityBinder<T>) binder;
+    }
+
+    public Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * Gets id column of entity.
+     *
+     * @return the @Id column, null If entity has no id
+     */
+    public ColumnMetadata getIdColumn() {
+        return idColumn;
+    }
+
+    /**
+     * Gets id generation strategy of entity.
+     *
+     * @return the strategy of @Id field, null If entity has no id
+     */
+    public GenerationType getIdStrategy() {
+        return idStrategy;
+    }
+
+    public String getIdColumnName() {
+        return idColumn == null ? null : idColumn.getName();
+    }
+
+    /**
+     * Gets @Column columns without the id column.
+     *
+     * @return the columns in field declaration order
+     */
+    public List<ColumnMetadata> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Gets id column followed by @Column columns.
+     *
+     * @return all mapped columns
+     */
+    public List<ColumnMetadata> getAllColumns() {
+        return allColumns;
+    }
+
+    /**
+     * Gets mapped column of given field name.
+     *
+     * @param pFieldName the entity field name
+     * @return           the column, null If field is not mapped
+     */
+    public ColumnMetadata getColumn(String pFieldName) {
+        return columnsByName.get(pFieldName);
+    }
+
+    /**
+     * Gets insert query of all columns, id column is the first parameter.
+     *
+     * @return the insert query, null If entity has no column
+     */
+    public String getInsertSql() {
+        return insertSql;
+    }
+
+    /**
+     * Gets insert query of entities that have db generated ids, id column is omitted.
+     *
+     * @return the insert query, null If id strategy is not identity or entity has no column other than id
+     */
+    public String getIdentityInsertSql() {
+        return identityInsertSql;
+    }
+
+    public String getFindByIdSql() {
+        return findByIdSql;
+    }
+
+    public String getFindAllSql() {
+        return findAllSql;
+    }
+
+    public String getUpdateSql() {
+        return updateSql;
+    }
+
+    /**
+     * Gets update query that sets only the columns of given mask, queries are built once per mask.
+     *
+     * @param pColumnMask the changed column mask of {@link EntitySnapshots#dirtyMask(EntityMetadata, Object)},
+     *                    bit i stands for i. column of {@link #getColumns()}
+     * @return            the update query, id column is the last parameter
+     */
+    public String getUpdateSql(long pColumnMask) {
+        if(pColumnMask == EntitySnapshots.ALL_COLUMNS)
+        {
+            return updateSql;
+        }
+
+        String sql = partialUpdateSqls.get(pColumnMask);
+        return sql != null ? sql : partialUpdateSqls.computeIfAbsent(pColumnMask, this::buildPartialUpdateSql);
+    }
+
+    private String buildPartialUpdateSql(long pColumnMask)
+    {
+        StringBuilder values = new StringBuilder();
+
+        for(int i = 0; i < columns.size() && i < Long.SIZE; i++)
+        {
+            if((pColumnMask & (1L << i)) != 0)
+            {
+                values.append(values.length() == 0 ? "" : ",").append(columns.get(i).getName()).append("=?");
+            }
+        }
+
+        return UPDATE + tableName + SET + values + WHERE + getIdColumnName() + "=?";
+    }
+
+    /**
+     * Gets upsert query of given dialect, It is built once per dialect.
+     * Parameters are same as the insert query.
+     *
+     * @param pDialect the sql dialect
+     * @return         the upsert query, null If entity has no id
+     */
+    public String getUpsertSql(Dialect pDialect)
+    {
+        if(idColumn == null || insertSql == null)
+        {
+            return null;
+        }
+
+        return upsertSqls.computeIfAbsent(pDialect.getName(), name -> pDialect.createUpsertSql(this));
+    }
+
+    public String getDeleteSql() {
+        return deleteSql;
+    }
+
+    /**
+     * Gets keyset page query of first page, the page limit is the only parameter.
+     *
+     * @return the query, null If entity has no id
+     */
+    public String getFindFirstPageSql() {
+        return findFirstPageSql;
+    }
+
+    /**
+     * Gets keyset page query of pages after an id, parameters are the last id of previous page and page limit.
+     *
+     * @return the query, null If entity has no id
+     */
+    public String getFindPageSql() {
+        return findPageSql;
+    }
+
+    /**
+     * Gets multi-get query of given IN list arity.
+     *
+     * @param pArity the arity given by {@link #inListArity(int)}
+     * @return       the "id IN (?,...)" query, null If entity has no id
+     */
+    public String getFindByIdsSql(int pArity) {
+        return findByIdsSqls == null ? null : findByIdsSqls[Integer.numberOfTrailingZeros(pArity)];
+    }
+}
@@ -0,0 +1,88 @@
+package orm.metadata;
+
+import annotations.Column;
+import annotations.Id;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe registry of entity metadata.
+ * Metadata of an entity class is built with reflection on first use and
+ * the same instance is returned for following calls.
+ */
+public class EntityMetadataRegistry
+{
+    private static final Map<Class<?>, EntityMetadata> metadataMap = new ConcurrentHashMap<>();
+
+    /**
+     * Private constructor to prevent object creation of this class.
+     */
+    private EntityMetadataRegistry()
+    {
+
+    }
+
+    /**
+     * Gets metadata of given entity class, builds It If not built yet.
+     *
+     * @param pEntityClassObject the entity class object
+     * @return                   the entity metadata
+     */
+    public static EntityMetadata getMetadata(Class<?> pEntityClassObject)
+    {
+        EntityMetadata metadata = metadataMap.get(pEntityClassObject);
+
+        if(metadata == null)
+        {
+            metadata = metadataMap.computeIfAbsent(pEntityClassObject, EntityMetadataRegistry::build);
+        }
+
+        return metadata;
+    }
+
+    /**
+     * Builds metadata of entity using reflection and custom annotations.
+     * Static and unannotated fields are not mapped.
+     *
+     * @param pEntityClassObject the entity class object
+     * @return                   the entity metadata
+     *
+     * @throws IllegalStateException Thrown If a mapped field can not be accessed by the orm.
+     */
+    private static EntityMetadata build(Class<?> pEntityClassObject)
+    {
+        ColumnMetadata idColumn = null;
+        List<ColumnMetadata> columns = new ArrayList<>();
+
+        try
+        {
+            for(Field field : pEntityClassObject.getDeclaredFields())
+            {
+                if(Modifier.isStatic(field.getModifiers()))
+                {
+                    continue;
+                }
+
+                if(field.isAnnotationPresent(Id.class))
+                {
+                    idColumn = new ColumnMetadata(field, true);
+                }
+                else if(field.isAnnotationPresent(Column.class))
+                {
+                    columns.add(new ColumnMetadata(field, false));
+                }
+            }
+        }
+        catch (IllegalAccessException e)
+        {
+            throw new IllegalStateException("Fields of "+pEntityClassObject.getName()+" could not be accessed !",e);
+        }
+
+        return new EntityMetadata(pEntityClassObject, idColumn, columns);
+    }
+}
@@ -0,0 +1,217 @@
+package orm.metadata;
+
+import orm.connection.TransactionManager;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps column values of entities as they were loaded from or written to db,
+ * so that an update can write only the columns that have changed since then.
+ * Entities are tracked by identity and weakly referenced, a snapshot is dropped when It's entity is collected.
+ * Dirty checking can be disabled with "orm.datasource.dirtyChecking=false".
+ */
+public final class EntitySnapshots
+{
+    /** Dirty mask of an entity that has no snapshot, every column is written. */
+    public static final long ALL_COLUMNS = -1L;
+
+    private static final Map<IdentityKey, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<Object> collectedEntities = new ReferenceQueue<>();
+    private static volatile boolean enabled = true;
+
+    /**
+     * Private constructor to prevent object creation of this class.
+     */
+    private EntitySnapshots()
+    {
+
+    }
+
+    /**
+     * Stores current column values of entity, replaces previous snapshot.
+     *
+     * @param pMetadata the entity metadata
+     * @param pEntity   the entity object that is in sync with db
+     */
+    public static void take(EntityMetadata pMetadata, Object pEntity)
+    {
+        if(!enabled || pMetadata.getIdColumn() == null)
+        {
+            return;
+        }
+
+        expungeCollected();
+        List<ColumnMetadata> columns = pMetadata.getColumns();
+        Object[] values = new Object[columns.size()];
+
+        for(int i = 0; i < values.length; i++)
+        {
+            values[i] = copy(columns.get(i).getValue(pEntity));
+        }
+
+        Object transactionKey = TransactionManager.getTransactionKey();
+        snapshots.put(new IdentityKey(pEntity, collectedEntities), new Snapshot(values, transactionKey));
+
+        if(transactionKey != null)
+        {
+            // snapshots of transaction may hold uncommitted values, so they are dropped If It is rolled back,
+            // they are found by their tag instead of holding their entities until transaction ends
+            TransactionManager.afterRollback(EntitySnapshots.class,
+                    () -> snapshots.values().removeIf(snapshot -> snapshot.transactionKey == transactionKey));
+        }
+    }
+
+    /**
+     * Finds columns of entity that differ from It's snapshot.
+     * Bit i of mask is set If i. column of {@link EntityMetadata#getColumns()} has changed.
+     * Entities with more than 64 columns have all bits set when any column has changed.
+     *
+     * @param pMetadata the entity metadata
+     * @param pEntity   the entity object
+     * @return          the changed column mask, 0 If nothing has changed,
+     *                  {@link #ALL_COLUMNS} If entity has no snapshot
+     */
+    public static long dirtyMask(EntityMetadata pMetadata, Object pEntity)
+    {
+        Snapshot snapshot = enabled ? snapshots.get(new IdentityKey(pEntity, null)) : null;
+
+        if(snapshot == null)
+        {
+            return ALL_COLUMNS;
+        }
+
+        Object[] values = snapshot.values;
+
+        List<ColumnMetadata> columns = pMetadata.getColumns();
+        long mask = 0;
+
+        for(int i = 0; i < values.length; i++)
+        {
+            if(!Objects.deepEquals(values[i], columns.get(i).getValue(pEntity)))
+            {
+                if(i >= Long.SIZE)
+                {
+                    return ALL_COLUMNS;
+                }
+
+                mask |= 1L << i;
+            }
+        }
+
+        return mask;
+    }
+
+    /**
+     * Drops snapshot of entity, It is used when entity is removed from db.
+     *
+     * @param pEntity the entity object
+     */
+    public static void remove(Object pEntity)
+    {
+        snapshots.remove(new IdentityKey(pEntity, null));
+    }
+
+    /**
+     * Enables or disables dirty checking, disabling It drops all snapshots.
+     *
+     * @param pEnabled true to keep snapshots of loaded entities
+     */
+    public static void setEnabled(boolean pEnabled)
+    {
+        enabled = pEnabled;
+
+        if(!pEnabled)
+        {
+            snapshots.clear();
+        }
+    }
+
+    public static boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Gets the number of tracked entities that are not collected yet.
+     *
+     * @return the snapshot count
+     */
+    public static int size()
+    {
+        expungeCollected();
+        return snapshots.size();
+    }
+
+    private static Object copy(Object pValue)
+    {
+        return pValue instanceof byte[] ? ((byte[]) pValue).clone() : pValue;
+    }
+
+    private static void expungeCollected()
+    {
+        Reference<?> reference;
+
+        while ((reference = collectedEntities.poll()) != null)
+        {
+            snapshots.remove(reference);
+        }
+    }
+
+    /**
+     * Column values of an entity and the key of transaction that It was taken in.
+     */
+    private static final class Snapshot
+    {
+        private final Object[] values;
+        private final Object transactionKey;
+
+        Snapshot(Object[] pValues, Object pTransactionKey)
+        {
+            this.values = pValues;
+            this.transactionKey = pTransactionKey;
+        }
+    }
+
+    /**
+     * Weak map key that compares entities by identity.
+     */
+    private static final class IdentityKey extends WeakReference<Object>
+    {
+        private final int hash;
+
+        IdentityKey(Object pEntity, ReferenceQueue<Object> pQueue)
+        {
+            super(pEntity, pQueue);
+            this.hash = System.identityHashCode(pEntity);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object pOther)
+        {
+            if(this == pOther)
+            {
+                return true;
+            }
+
+            if(!(pOther instanceof IdentityKey))
+            {
+                return false;
+            }
+
+            Object entity = get();
+            return entity != null && entity == ((IdentityKey) pOther).get();
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package orm.metadata;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+/**
+ * Reads and writes an entity field using method handles instead of {@link Field#get(Object)}
+ * and {@link Field#set(Object, Object)}.
+ * Handles are created once per field. Primitive fields have exact typed handles,
+ * so int, long, double and boolean values are read and written without boxing.
+ */
+public final class FieldAccessor
+{
+    private static final MethodType OBJECT_GETTER = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType OBJECT_SETTER = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Field field;
+    private final MethodHandle getter;
+    private final MethodHandle setter;
+    private final MethodHandle intGetter;
+    private final MethodHandle intSetter;
+    private final MethodHandle longGetter;
+    private final MethodHandle longSetter;
+    private final MethodHandle doubleGetter;
+    private final MethodHandle doubleSetter;
+    private final MethodHandle booleanGetter;
+    private final MethodHandle booleanSetter;
+
+    /**
+     * Creates getter and setter handles of given field.
+     *
+     * @param pField the entity field
+     *
+     * @throws IllegalAccessException Thrown If field can not be accessed by the orm.
+     */
+    public FieldAccessor(Field pField) throws IllegalAccessException
+    {
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(pField.getDeclaringClass(), MethodHandles.lookup());
+        MethodHandle rawGetter = lookup.unreflectGetter(pField);
+        MethodHandle rawSetter = lookup.unreflectSetter(pField);
+        Class<?> type = pField.getType();
+
+        this.field = pField;
+        this.getter = rawGetter.asType(OBJECT_GETTER);
+        this.setter = rawSetter.asType(OBJECT_SETTER);
+        this.intGetter = type == int.class ? primitiveGetter(rawGetter, int.class) : null;
+        this.intSetter = type == int.class ? primitiveSetter(rawSetter, int.class) : null;
+        this.longGetter = type == long.class ? primitiveGetter(rawGetter, long.class) : null;
+        this.longSetter = type == long.class ? primitiveSetter(rawSetter, long.class) : null;
+        this.doubleGetter = type == double.class ? primitiveGetter(rawGetter, double.class) : null;
+        this.doubleSetter = type == double.class ? primitiveSetter(rawSetter, double.class) : null;
+        this.booleanGetter = type == boolean.class ? primitiveGetter(rawGetter, boolean.class) : null;
+        this.booleanSetter = type == boolean.class ? primitiveSetter(rawSetter, boolean.class) : null;
+    }
+
+    public Object get(Object pEntity)
+    {
+        try
+        {
+            return getter.invokeExact(pEntity);
+        }
+        catch (Throwable e)
+        {
+            throw accessFailed(e);
+        }
+    }
+
+    public void set(Object pEntity, Object pValue)
+    {
+        try
+        {
+            setter.invokeExact(pEntity, pValue);
+        }
+        catch (Throwable e)
+        {
+            throw accessFailed(e);
+        }
+    }
+
+    public int getInt(Object pEntity)
+    {
+        if(intGetter == null)
+        {
+            return ((Number) get(pEntity)).intValue();
+        }
+
+        try
+        {
+            return (int) intGetter.invokeExact(pEntity);
+        }
+        catch (Throwable e)
+        {
+            throw accessFailed(e);
+        }
+    }
+
+    public void setInt(Object pEntity, int pValue)
+    {
+        if(intSetter == null)
+        {
+            set(pEntity, pValue);
+            return;
+        }
+
+        try
+        {
+            intSetter.invokeExact(pEntity, pValue);
+        }
+        catch (Throwable e)
+        {
+            throw accessFailed(e);
+        }
+    }
+
+    public long getLong(Object pEntity)
+    {
+        if(longGetter == null)
+        {
+            return ((Number) get(pEntity)).longValue();
+        }
+
+        try
+        {
+            return (long) longGetter.invokeExact(pEntity);
+        }
+        catch (Throwable e)
+        {
+            throw accessFailed(e);
+        }
+    }
+
+    public void setLong(Object pEntity, long pValue)
+    {
+        if(longSetter == null)
+        {
+            set(pEntity, pValue);
+            return;
+        }
+
+        try
+        {
+            longSetter.invokeExact(pEntity, pValue);
+        }
+        catch (Throwable e)
+        {
+            throw accessFailed(e);
+        }
+    }
+
+    public double getDouble(Object pEntity)
+    {
+        if(doubleGetter == null)
+        {
+            return ((Number) get(pEntity)).doubleValue();
+        }
+
+        try
+        {
+            return (double) doubleGetter.invokeExact(pEntity);
+        }
+        catch (Throwable e)
+        {
+            throw accessFailed(e);
+        }
+    }
+
+    public void setDouble(Object pEntity, double pValue)
+    {
+        if(doubleSetter == null)
+        {
+            set(pEntity, pValue);
+            return;
+        }
+
+        try
+        {
+            doubleSetter.invokeExact(pEntity, pValue);
+        }
+        catch (Throwable e)
+        {
+            throw accessFailed(e);
+        }
+    }
+
+    public boolean getBoolean(Object pEntity)
+    {
+        if(booleanGetter == null)
+        {
+            return (Boolean) get(pEntity);
+        }
+
+        try
+        {
+            return (boolean) booleanGetter.invokeExact(pEntity);
+        }
+        catch (Throwable e)
+        {
+            throw accessFailed(e);
+        }
+    }
+
+    public void setBoolean(Object pEntity, boolean pValue)
+    {
+        if(booleanSetter == null)
+        {
+            set(pEntity, pValue);
+            return;
+        }
+
+        try
+        {
+            booleanSetter.invokeExact(pEntity, pValue);
+        }
+        catch (Throwable e)
+        {
+            throw accessFailed(e);
+        }
+    }
+
+    private static MethodHandle primitiveGetter(MethodHandle pRawGetter, Class<?> pType)
+    {
+        return pRawGetter.asType(MethodType.methodType(pType, Object.class));
+    }
+
+    private static MethodHandle primitiveSetter(MethodHandle pRawSetter, Class<?> pType)
+    {
+        return pRawSetter.asType(MethodType.methodType(void.class, Object.class, pType));
+    }
+
+    /**
+     * Rethrows unchecked exceptions and errors of handle invocation,
+     * wraps others to an unchecked exception.
+     *
+     * @param pThrowable the thrown exception
+     * @return           the unchecked exception that will be thrown
+     */
+    private RuntimeException accessFailed(Throwable pThrowable)
+    {
+        if(pThrowable instanceof RuntimeException)
+        {
+            return (RuntimeException) pThrowable;
+        }
+
+        if(pThrowable instanceof Error)
+        {
+            throw (Error) pThrowable;
+        }
+
+        return new IllegalStateException(field.getName()+" field of "+field.getDeclaringClass().getName()
+                +" could not be accessed !", pThrowable);
+    }
+}
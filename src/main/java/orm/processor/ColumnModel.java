@@ -0,0 +1,160 @@
+package orm.processor;
+
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import java.util.Locale;
+
+/**
+ * Compile time model of a mapped entity field.
+ * It creates java source snippets that read, write and bind the field
+ * through It's getter/setter, or directly If field is not private.
+ * Primitive int, long, double and boolean fields are read and bound directly, their handlers can't be replaced,
+ * other types are delegated to the type handler of orm.types.TypeHandlerRegistry.
+ * Handlers are kept in constants, the registry doesn't accept new handlers after they are looked up.
+ */
+class ColumnModel
+{
+    final String name;
+    private final String type;
+    private final String getter;
+    private final String setter;
+
+    private ColumnModel(String pName, String pType, String pGetter, String pSetter)
+    {
+        this.name = pName;
+        this.type = pType;
+        this.getter = pGetter;
+        this.setter = pSetter;
+    }
+
+    /**
+     * Creates column model of given field.
+     *
+     * @param pEntity the entity type element
+     * @param pField  the mapped field
+     * @param pTypes  the type utils of processing environment
+     * @return        the column model, null If field type is unsupported or field can not be accessed
+     */
+    static ColumnModel of(TypeElement pEntity, VariableElement pField, Types pTypes)
+    {
+        String name = pField.getSimpleName().toString();
+        TypeMirror fieldType = pField.asType();
+        String type = pTypes.erasure(fieldType).toString();
+
+        if(fieldType.getKind().isPrimitive() && !isDirectPrimitive(type))
+        {
+            return null;
+        }
+
+        String capitalized = name.substring(0, 1).toUpperCase(Locale.ROOT) + name.substring(1);
+        String getter = null;
+        String setter = null;
+
+        for(ExecutableElement method : ElementFilter.methodsIn(pEntity.getEnclosedElements()))
+        {
+            if(method.getModifiers().contains(Modifier.PRIVATE) || method.getModifiers().contains(Modifier.STATIC))
+            {
+                continue;
+            }
+
+            String methodName = method.getSimpleName().toString();
+
+            if(method.getParameters().isEmpty() && pTypes.isSameType(method.getReturnType(), fieldType)
+                    && (methodName.equals("get" + capitalized) || methodName.equals("is" + capitalized)))
+            {
+                getter = methodName + "()";
+            }
+            else if(method.getParameters().size() == 1 && methodName.equals("set" + capitalized)
+                    && pTypes.isSameType(method.getParameters().get(0).asType(), fieldType))
+            {
+                setter = methodName;
+            }
+        }
+
+        if(getter == null || setter == null)
+        {
+            if(pField.getModifiers().contains(Modifier.PRIVATE) || pField.getModifiers().contains(Modifier.FINAL))
+            {
+                return null;
+            }
+
+            getter = getter == null ? name : getter;
+        }
+
+        return new ColumnModel(name, type, getter, setter);
+    }
+
+    private static boolean isDirectPrimitive(String pType)
+    {
+        return pType.equals("int") || pType.equals("long") || pType.equals("double") || pType.equals("boolean");
+    }
+
+    private String handlerName()
+    {
+        return name.toUpperCase(Locale.ROOT) + "_HANDLER";
+    }
+
+    /**
+     * Creates type handler constant declaration of this column.
+     *
+     * @return the declaration, empty for primitive columns
+     */
+    String handlerDeclaration()
+    {
+        if(isDirectPrimitive(type))
+        {
+            return "";
+        }
+
+        return "    private static final orm.types.TypeHandler<" + type + "> " + handlerName()
+                + " = orm.types.TypeHandlerRegistry.require(" + type + ".class);\n";
+    }
+
+    String get(String pTarget)
+    {
+        return pTarget + "." + getter;
+    }
+
+    String write(String pTarget, String pValue)
+    {
+        return setter == null ? pTarget + "." + name + " = " + pValue : pTarget + "." + setter + "(" + pValue + ")";
+    }
+
+    /**
+     * Creates read expression of this column, It is same as the runtime type handler read.
+     */
+    String read(String pResultSet, String pColumnIndex)
+    {
+        if(isDirectPrimitive(type))
+        {
+            return pResultSet + ".get" + primitiveMethodSuffix() + "(" + pColumnIndex + ")";
+        }
+
+        return handlerName() + ".read(" + pResultSet + ", " + pColumnIndex + ")";
+    }
+
+    /**
+     * Creates bind statement of this column, It is same as the runtime type handler bind.
+     */
+    String bind(String pStatement, String pIndex, String pEntity)
+    {
+        String value = get(pEntity);
+
+        if(isDirectPrimitive(type))
+        {
+            return "        " + pStatement + ".set" + primitiveMethodSuffix() + "(" + pIndex + ", " + value + ");\n";
+        }
+
+        return "        " + handlerName() + ".bind(" + pStatement + ", " + pIndex + ", " + value + ");\n";
+    }
+
+    private String primitiveMethodSuffix()
+    {
+        return type.substring(0, 1).toUpperCase(Locale.ROOT) + type.substring(1);
+    }
+}
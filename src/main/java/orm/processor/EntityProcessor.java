@@ -0,0 +1,304 @@
+package orm.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Annotation processor that generates mapping classes of entities at compile time.
+ * For each @Entity class it generates three classes in the package of entity:
+ * Entity_Mapper (ResultSet to entity), Entity_Binder (entity to PreparedStatement)
+ * and Entity_Sql (base entity operation queries).
+ * Repository uses generated classes instead of reflection when they are present.
+ * Entities that can not be mapped without reflection (private fields without getter/setter,
+ * no no-arg constructor or unsupported primitive types) are skipped with a note.
+ */
+@SupportedAnnotationTypes(EntityProcessor.ENTITY)
+public class EntityProcessor extends AbstractProcessor
+{
+    static final String ENTITY = "annotations.Entity";
+    private static final String ID = "annotations.Id";
+    private static final String COLUMN = "annotations.Column";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion()
+    {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv)
+    {
+        for(TypeElement annotation : annotations)
+        {
+            for(Element element : roundEnv.getElementsAnnotatedWith(annotation))
+            {
+                if(element.getKind() == ElementKind.CLASS)
+                {
+                    processEntity((TypeElement) element);
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Generates mapper, binder and sql classes of entity If It can be mapped without reflection.
+     *
+     * @param pEntity the entity type element
+     */
+    private void processEntity(TypeElement pEntity)
+    {
+        if(pEntity.getNestingKind() != NestingKind.TOP_LEVEL || pEntity.getModifiers().contains(Modifier.PRIVATE)
+                || !hasNoArgConstructor(pEntity))
+        {
+            note(pEntity, "must be a top level class with a non-private no-arg constructor");
+            return;
+        }
+
+        ColumnModel idColumn = null;
+        List<ColumnModel> columns = new ArrayList<>();
+
+        for(VariableElement field : ElementFilter.fieldsIn(pEntity.getEnclosedElements()))
+        {
+            if(field.getModifiers().contains(Modifier.STATIC))
+            {
+                continue;
+            }
+
+            boolean isId = hasAnnotation(field, ID);
+
+            if(!isId && !hasAnnotation(field, COLUMN))
+            {
+                continue;
+            }
+
+            ColumnModel column = ColumnModel.of(pEntity, field, processingEnv.getTypeUtils());
+
+            if(column == null)
+            {
+                note(pEntity, field.getSimpleName()+" field can not be accessed or It's type is unsupported");
+                return;
+            }
+
+            if(isId)
+            {
+                idColumn = column;
+            }
+            else
+            {
+                columns.add(column);
+            }
+        }
+
+        String packageName = ((PackageElement) pEntity.getEnclosingElement()).getQualifiedName().toString();
+        String entityName = pEntity.getSimpleName().toString();
+
+        try
+        {
+            writeMapper(pEntity, packageName, entityName, idColumn, columns);
+            writeBinder(pEntity, packageName, entityName, idColumn, columns);
+            writeSql(pEntity, packageName, entityName, idColumn, columns);
+        }
+        catch (IOException e)
+        {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Mapping classes could not be generated: "+e.getMessage(), pEntity);
+        }
+    }
+
+    private void writeMapper(TypeElement pEntity, String pPackageName, String pEntityName,
+                             ColumnModel pIdColumn, List<ColumnModel> pColumns) throws IOException
+    {
+        String className = pEntityName + "_Mapper";
+        List<ColumnModel> all = allColumns(pIdColumn, pColumns);
+        StringBuilder body = new StringBuilder(handlerDeclarations(all));
+        body.append("    @Override\n")
+            .append("    public ").append(pEntityName)
+            .append(" mapRow(java.sql.ResultSet pResultSet, int[] pColumnIndexes) throws java.sql.SQLException\n")
+            .append("    {\n")
+            .append("        ").append(pEntityName).append(" entity = new ").append(pEntityName).append("();\n");
+
+        for(int i = 0; i < all.size(); i++)
+        {
+            ColumnModel column = all.get(i);
+            body.append("        ").append(column.write("entity", column.read("pResultSet", "pColumnIndexes[" + i + "]")))
+                .append(";\n");
+        }
+
+        body.append("        return entity;\n")
+            .append("    }\n");
+
+        writeClass(pEntity, pPackageName, className,
+                "implements orm.mapping.RowMapper<" + pEntityName + ">", body.toString());
+    }
+
+    private void writeBinder(TypeElement pEntity, String pPackageName, String pEntityName,
+                             ColumnModel pIdColumn, List<ColumnModel> pColumns) throws IOException
+    {
+        String className = pEntityName + "_Binder";
+        StringBuilder body = new StringBuilder(handlerDeclarations(pColumns));
+        body.append("    @Override\n")
+            .append("    public int bindColumns(java.sql.PreparedStatement pStatement, ").append(pEntityName)
+            .append(" pEntity, int pStartIndex) throws java.sql.SQLException\n")
+            .append("    {\n")
+            .append("        int paramIndex = pStartIndex;\n");
+
+        for(ColumnModel column : pColumns)
+        {
+            body.append(column.bind("pStatement", "paramIndex++", "pEntity"));
+        }
+
+        body.append("        return paramIndex;\n")
+            .append("    }\n\n")
+            .append("    @Override\n")
+            .append("    public Object getId(").append(pEntityName).append(" pEntity)\n")
+            .append("    {\n")
+            .append("        return ").append(pIdColumn == null ? "null" : pIdColumn.get("pEntity")).append(";\n")
+            .append("    }\n");
+
+        writeClass(pEntity, pPackageName, className,
+                "implements orm.mapping.EntityBinder<" + pEntityName + ">", body.toString());
+    }
+
+    /**
+     * Writes base entity operation queries, they are same as the queries of entity metadata.
+     */
+    private void writeSql(TypeElement pEntity, String pPackageName, String pEntityName,
+                          ColumnModel pIdColumn, List<ColumnModel> pColumns) throws IOException
+    {
+        List<ColumnModel> all = allColumns(pIdColumn, pColumns);
+        String idName = pIdColumn == null ? "null" : pIdColumn.name;
+        StringBuilder names = new StringBuilder();
+        StringBuilder qMarks = new StringBuilder();
+        StringBuilder sets = new StringBuilder();
+
+        for(int i = 0; i < all.size(); i++)
+        {
+            names.append(i == 0 ? "" : ",").append(all.get(i).name);
+            qMarks.append(i == 0 ? "?" : ",?");
+        }
+
+        for(int i = 0; i < pColumns.size(); i++)
+        {
+            sets.append(i == 0 ? "" : ",").append(pColumns.get(i).name).append("=?");
+        }
+
+        String tableName = pEntityName.toLowerCase(Locale.ROOT);
+        StringBuilder body = new StringBuilder();
+        constant(body, "INSERT", all.isEmpty() ? null : "INSERT INTO " + tableName
+                + "(" + names + ") VALUES(" + qMarks + ")");
+        constant(body, "FIND_BY_ID", "SELECT * FROM " + tableName + " WHERE " + idName + "=?");
+        constant(body, "FIND_ALL", "SELECT * FROM " + tableName);
+        constant(body, "UPDATE", "UPDATE " + tableName + " SET " + sets + " WHERE " + idName + "=?");
+        constant(body, "DELETE", "DELETE FROM " + tableName + " WHERE " + idName + "=?");
+
+        writeClass(pEntity, pPackageName, pEntityName + "_Sql", "", body.toString());
+    }
+
+    private void constant(StringBuilder pBody, String pName, String pSql)
+    {
+        pBody.append("    public static final String ").append(pName).append(" = ")
+             .append(pSql == null ? "null" : "\"" + pSql + "\"").append(";\n");
+    }
+
+    private void writeClass(TypeElement pEntity, String pPackageName, String pClassName,
+                            String pImplementsClause, String pBody) throws IOException
+    {
+        String qualifiedName = pPackageName.isEmpty() ? pClassName : pPackageName + "." + pClassName;
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, pEntity);
+
+        try (Writer writer = file.openWriter())
+        {
+            if(!pPackageName.isEmpty())
+            {
+                writer.write("package " + pPackageName + ";\n\n");
+            }
+
+            writer.write("/**\n * Generated by " + EntityProcessor.class.getName() + ", do not edit.\n */\n");
+            writer.write("public final class " + pClassName
+                    + (pImplementsClause.isEmpty() ? "" : " " + pImplementsClause) + "\n{\n");
+            writer.write(pBody);
+            writer.write("}\n");
+        }
+    }
+
+    private static String handlerDeclarations(List<ColumnModel> pColumns)
+    {
+        StringBuilder declarations = new StringBuilder();
+
+        for(ColumnModel column : pColumns)
+        {
+            declarations.append(column.handlerDeclaration());
+        }
+
+        return declarations.length() == 0 ? "" : declarations.append("\n").toString();
+    }
+
+    private static List<ColumnModel> allColumns(ColumnModel pIdColumn, List<ColumnModel> pColumns)
+    {
+        List<ColumnModel> all = new ArrayList<>();
+
+        if(pIdColumn != null)
+        {
+            all.add(pIdColumn);
+        }
+
+        all.addAll(pColumns);
+        return all;
+    }
+
+    private static boolean hasNoArgConstructor(TypeElement pEntity)
+    {
+        for(ExecutableElement constructor : ElementFilter.constructorsIn(pEntity.getEnclosedElements()))
+        {
+            if(constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    static boolean hasAnnotation(Element pElement, String pAnnotationName)
+    {
+        for(AnnotationMirror mirror : pElement.getAnnotationMirrors())
+        {
+            if(((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName()
+                    .contentEquals(pAnnotationName))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void note(TypeElement pEntity, String pReason)
+    {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                pEntity.getQualifiedName()+" mapping classes are not generated, reflection will be used: "+pReason,
+                pEntity);
+    }
+}
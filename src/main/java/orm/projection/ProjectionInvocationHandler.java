@@ -0,0 +1,81 @@
+package orm.projection;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Invocation handler of interface projections, getters return the selected column values.
+ */
+class ProjectionInvocationHandler implements InvocationHandler
+{
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private final Class<?> projectionType;
+    private final Map<Method, Integer> getterIndexes;
+    private final Map<Method, MethodHandle> defaultMethods;
+    private final Object[] values;
+
+    /**
+     * Creates handler of one projection.
+     *
+     * @param pProjectionType the projection interface
+     * @param pGetterIndexes  the value indexes of getters
+     * @param pDefaultMethods the handles of default methods that are resolved by the projection plan
+     * @param pValues         the selected column values
+     */
+    ProjectionInvocationHandler(Class<?> pProjectionType, Map<Method, Integer> pGetterIndexes,
+                                Map<Method, MethodHandle> pDefaultMethods, Object[] pValues)
+    {
+        this.projectionType = pProjectionType;
+        this.getterIndexes = pGetterIndexes;
+        this.defaultMethods = pDefaultMethods;
+        this.values = pValues;
+    }
+
+    @Override
+    public Object invoke(Object pProxy, Method pMethod, Object[] pArgs) throws Throwable
+    {
+        Integer index = getterIndexes.get(pMethod);
+
+        if(index != null)
+        {
+            return values[index];
+        }
+
+        MethodHandle defaultMethod = defaultMethods.get(pMethod);
+
+        if(defaultMethod != null)
+        {
+            Object[] args = pArgs == null ? NO_ARGS : pArgs;
+            return (Object) defaultMethod.invokeExact(pProxy, args);
+        }
+
+        switch (pMethod.getName())
+        {
+            case "equals":
+                return pArgs[0] != null && Proxy.isProxyClass(pArgs[0].getClass())
+                        && isSameProjection(Proxy.getInvocationHandler(pArgs[0]));
+            case "hashCode":
+                return Arrays.hashCode(values);
+            case "toString":
+                return projectionType.getSimpleName()+Arrays.toString(values);
+            default:
+                throw new UnsupportedOperationException(pMethod.toString());
+        }
+    }
+
+    private boolean isSameProjection(InvocationHandler pHandler)
+    {
+        if(!(pHandler instanceof ProjectionInvocationHandler))
+        {
+            return false;
+        }
+
+        ProjectionInvocationHandler other = (ProjectionInvocationHandler) pHandler;
+        return projectionType == other.projectionType && Arrays.equals(values, other.values);
+    }
+}
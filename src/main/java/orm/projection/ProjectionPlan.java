@@ -0,0 +1,315 @@
+package orm.projection;
+
+import orm.metadata.ColumnMetadata;
+import orm.metadata.EntityInstantiator;
+import orm.metadata.EntityMetadata;
+import orm.metadata.EntityMetadataRegistry;
+import orm.metadata.FieldAccessor;
+import orm.types.TypeHandler;
+import orm.types.TypeHandlerRegistry;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mapping plan of an entity to a projection type that has only some of the entity columns.
+ * Query selects only the projected columns in plan order, so rows are read by position without
+ * resolving column labels. Plans are created once per (entity, projection type) pair and cached.
+ *
+ * Projection type may be:
+ * an interface whose getters (getName(), isActive() or name()) are named after mapped entity fields,
+ * instances are proxies that hold the selected values;
+ * or a class with a no-arg constructor whose fields are named after mapped entity fields,
+ * fields that do not match an entity field are left untouched.
+ *
+ * @param <P> the projection type
+ */
+public final class ProjectionPlan<P>
+{
+    private static final Map<Class<?>, Map<Class<?>, ProjectionPlan<?>>> plans = new ConcurrentHashMap<>();
+
+    private final Class<P> projectionType;
+    private final String selectList;
+    private final String findAllSql;
+    private final TypeHandler<?>[] handlers;
+    private final FieldAccessor[] accessors;
+    private final EntityInstantiator instantiator;
+    private final Map<Method, Integer> getterIndexes;
+    private final Map<Method, MethodHandle> defaultMethods;
+
+    private ProjectionPlan(Class<P> pProjectionType, EntityMetadata pMetadata, List<ColumnMetadata> pColumns,
+                           List<TypeHandler<?>> pHandlers, List<FieldAccessor> pAccessors,
+                           Map<Method, Integer> pGetterIndexes, Map<Method, MethodHandle> pDefaultMethods)
+    {
+        StringBuilder columns = new StringBuilder();
+
+        for(ColumnMetadata column : pColumns)
+        {
+            columns.append(columns.length() == 0 ? "" : ",").append(column.getName());
+        }
+
+        this.projectionType = pProjectionType;
+        this.selectList = columns.toString();
+        this.findAllSql = "SELECT " + selectList + " FROM " + pMetadata.getTableName();
+        this.handlers = pHandlers.toArray(new TypeHandler<?>[0]);
+        this.accessors = pAccessors == null ? null : pAccessors.toArray(new FieldAccessor[0]);
+        this.instantiator = pProjectionType.isInterface() ? null : new EntityInstantiator(pProjectionType);
+        this.getterIndexes = pGetterIndexes;
+        this.defaultMethods = pDefaultMethods;
+    }
+
+    /**
+     * Gets cached plan of given entity and projection type, creates It If not created yet.
+     *
+     * @param pEntityClass    the entity class object
+     * @param pProjectionType the projection interface or class
+     * @param <P>             the projection type
+     * @return                the projection plan
+     *
+     * @throws IllegalArgumentException Thrown If projection type does not match any entity column
+     *                                  or a projected type does not fit the column type.
+     */
+    @SuppressWarnings("unchecked")
+    public static <P> ProjectionPlan<P> of(Class<?> pEntityClass, Class<P> pProjectionType)
+    {
+        Map<Class<?>, ProjectionPlan<?>> entityPlans = plans.get(pEntityClass);
+
+        if(entityPlans == null)
+        {
+            entityPlans = plans.computeIfAbsent(pEntityClass, entityClass -> new ConcurrentHashMap<>());
+        }
+
+        ProjectionPlan<?> plan = entityPlans.get(pProjectionType);
+
+        if(plan == null)
+        {
+            plan = entityPlans.computeIfAbsent(pProjectionType, type -> create(pEntityClass, type));
+        }
+
+        return (ProjectionPlan<P>) plan;
+    }
+
+    /**
+     * Gets the projected columns of select query, like "name,surname".
+     *
+     * @return the comma separated column names
+     */
+    public String getSelectList() {
+        return selectList;
+    }
+
+    /**
+     * Gets query that selects projected columns of all entities.
+     *
+     * @return the select query
+     */
+    public String getFindAllSql() {
+        return findAllSql;
+    }
+
+    public Class<P> getProjectionType() {
+        return projectionType;
+    }
+
+    /**
+     * Maps current row of a result set that is selected with the select list of this plan.
+     *
+     * @param pResultSet the result set
+     * @return           the projection object
+     *
+     * @throws SQLException           sql exceptions
+     * @throws InstantiationException Thrown If projection class could not be instantiated.
+     */
+    public P map(ResultSet pResultSet) throws SQLException, InstantiationException
+    {
+        if(instantiator == null)
+        {
+            Object[] values = new Object[handlers.length];
+
+            for(int i = 0; i < handlers.length; i++)
+            {
+                values[i] = handlers[i].read(pResultSet, i + 1);
+            }
+
+            return projectionType.cast(Proxy.newProxyInstance(projectionType.getClassLoader(),
+                    new Class<?>[]{projectionType},
+                    new ProjectionInvocationHandler(projectionType, getterIndexes, defaultMethods, values)));
+        }
+
+        Object projection = instantiator.newInstance();
+
+        for(int i = 0; i < handlers.length; i++)
+        {
+            handlers[i].readField(pResultSet, i + 1, accessors[i], projection);
+        }
+
+        return projectionType.cast(projection);
+    }
+
+    private static <P> ProjectionPlan<P> create(Class<?> pEntityClass, Class<P> pProjectionType)
+    {
+        EntityMetadata metadata = EntityMetadataRegistry.getMetadata(pEntityClass);
+        List<ColumnMetadata> columns = new ArrayList<>();
+        List<TypeHandler<?>> handlers = new ArrayList<>();
+
+        if(pProjectionType.isInterface())
+        {
+            Map<Method, Integer> getterIndexes = new HashMap<>();
+            Map<Method, MethodHandle> defaultMethods = new HashMap<>();
+
+            for(Method method : pProjectionType.getMethods())
+            {
+                if(method.isDefault())
+                {
+                    defaultMethods.put(method, defaultMethodHandle(pEntityClass, pProjectionType, method));
+                    continue;
+                }
+
+                if(Modifier.isStatic(method.getModifiers()))
+                {
+                    continue;
+                }
+
+                ColumnMetadata column = method.getParameterCount() == 0
+                        ? metadata.getColumn(propertyName(method.getName())) : null;
+
+                if(column == null)
+                {
+                    throw invalid(pEntityClass, pProjectionType, method.getName()+" is not a getter of a mapped field");
+                }
+
+                checkType(pEntityClass, pProjectionType, column, method.getReturnType());
+                getterIndexes.put(method, columns.size());
+                columns.add(column);
+                handlers.add(TypeHandlerRegistry.find(method.getReturnType()));
+            }
+
+            checkNotEmpty(pEntityClass, pProjectionType, columns);
+            return new ProjectionPlan<>(pProjectionType, metadata, columns, handlers, null,
+                    Collections.unmodifiableMap(getterIndexes), Collections.unmodifiableMap(defaultMethods));
+        }
+
+        List<FieldAccessor> accessors = new ArrayList<>();
+
+        for(Class<?> type = pProjectionType; type != null && type != Object.class; type = type.getSuperclass())
+        {
+            for(Field field : type.getDeclaredFields())
+            {
+                ColumnMetadata column = metadata.getColumn(field.getName());
+
+                if(column == null || Modifier.isStatic(field.getModifiers()) || Modifier.isFinal(field.getModifiers()))
+                {
+                    continue;
+                }
+
+                checkType(pEntityClass, pProjectionType, column, field.getType());
+
+                try
+                {
+                    accessors.add(new FieldAccessor(field));
+                }
+                catch (IllegalAccessException e)
+                {
+                    throw new IllegalArgumentException(field.getName()+" field of "+pProjectionType.getName()
+                            +" can not be accessed !", e);
+                }
+
+                columns.add(column);
+                handlers.add(TypeHandlerRegistry.find(field.getType()));
+            }
+        }
+
+        checkNotEmpty(pEntityClass, pProjectionType, columns);
+        return new ProjectionPlan<>(pProjectionType, metadata, columns, handlers, accessors, null, null);
+    }
+
+    /**
+     * Resolves handle of a default method of projection interface once, so calls on proxies don't look It up.
+     * Handle takes the proxy and an argument array and returns the result as Object.
+     *
+     * @param pEntityClass    the entity class object
+     * @param pProjectionType the projection interface
+     * @param pMethod         the default method
+     * @return                the method handle of type (Object, Object[])Object
+     */
+    private static MethodHandle defaultMethodHandle(Class<?> pEntityClass, Class<?> pProjectionType, Method pMethod)
+    {
+        Class<?> declaringClass = pMethod.getDeclaringClass();
+
+        try
+        {
+            return MethodHandles.privateLookupIn(declaringClass, MethodHandles.lookup())
+                    .unreflectSpecial(pMethod, declaringClass)
+                    .asSpreader(Object[].class, pMethod.getParameterCount())
+                    .asType(MethodType.methodType(Object.class, Object.class, Object[].class));
+        }
+        catch (IllegalAccessException e)
+        {
+            IllegalArgumentException exception = invalid(pEntityClass, pProjectionType,
+                    pMethod.getName()+" default method can not be accessed");
+            exception.initCause(e);
+            throw exception;
+        }
+    }
+
+    /**
+     * Gets field name of a getter, getName and isName give "name", other methods give their own name.
+     *
+     * @param pMethodName the getter name
+     * @return            the field name
+     */
+    private static String propertyName(String pMethodName)
+    {
+        int prefix = pMethodName.startsWith("get") ? 3 : pMethodName.startsWith("is") ? 2 : 0;
+
+        if(prefix == 0 || pMethodName.length() == prefix || !Character.isUpperCase(pMethodName.charAt(prefix)))
+        {
+            return pMethodName;
+        }
+
+        return pMethodName.substring(prefix, prefix + 1).toLowerCase(Locale.ROOT) + pMethodName.substring(prefix + 1);
+    }
+
+    private static void checkType(Class<?> pEntityClass, Class<?> pProjectionType, ColumnMetadata pColumn,
+                                  Class<?> pType)
+    {
+        if(wrap(pType) != wrap(pColumn.getType()) || TypeHandlerRegistry.find(pType) == null)
+        {
+            throw invalid(pEntityClass, pProjectionType, pColumn.getName()+" must be "+pColumn.getType().getName()
+                    +" or It's wrapper type");
+        }
+    }
+
+    private static void checkNotEmpty(Class<?> pEntityClass, Class<?> pProjectionType, List<ColumnMetadata> pColumns)
+    {
+        if(pColumns.isEmpty())
+        {
+            throw invalid(pEntityClass, pProjectionType, "no mapped field is projected");
+        }
+    }
+
+    private static Class<?> wrap(Class<?> pType)
+    {
+        return MethodType.methodType(pType).wrap().returnType();
+    }
+
+    private static IllegalArgumentException invalid(Class<?> pEntityClass, Class<?> pProjectionType, String pReason)
+    {
+        return new IllegalArgumentException(pProjectionType.getName()+" is not a projection of "
+                +pEntityClass.getName()+" ! "+pReason+".");
+    }
+}
@@ -0,0 +1,469 @@
+package orm.query;
+
+import orm.exception.UnsupportedFieldTypeException;
+import orm.metadata.ColumnMetadata;
+import orm.metadata.EntityMetadata;
+import orm.metadata.EntityMetadataRegistry;
+import orm.utilities.EntityUtil;
+
+import java.lang.invoke.MethodType;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Fluent query builder of an entity that compiles to a parameterized select, update or delete query.
+ * Predicates refer to mapped entity fields by name and are checked against entity metadata when they are added.
+ * Predicates are joined in the given order and AND binds tighter than OR like in sql,
+ * so where(a).and(b).or(c) means (a AND b) OR c.
+ * Query sql depends only on the query shape (entity, fields, operators, joins, ordering, limit presence
+ * and select list), It is built once per shape and cached, values are bound as parameters.
+ *
+ * <pre>
+ *     Criteria&lt;Person&gt; criteria = Criteria.of(Person.class)
+ *             .where("age", Operator.GREATER_THAN, 30)
+ *             .and("surname", Operator.LIKE, "A%")
+ *             .orderByDescending("age")
+ *             .limit(10);
+ *     List&lt;Person&gt; persons = repository.findAll(criteria);
+ * </pre>
+ *
+ * @param <T> the entity type
+ */
+public class Criteria<T>
+{
+    private static final String ALL_COLUMNS = "*";
+    private static final String SELECT = "SELECT ";
+    private static final String FROM = " FROM ";
+    private static final String DELETE = "DELETE FROM ";
+    private static final String UPDATE = "UPDATE ";
+    private static final String SET = " SET ";
+    private static final String WHERE = " WHERE ";
+    private static final String AND = " AND ";
+    private static final String OR = " OR ";
+    private static final String ORDER_BY = " ORDER BY ";
+    private static final String DESC = " DESC";
+    private static final String LIMIT = " LIMIT ?";
+
+    /** Sql of query shapes, shapes are fixed by code so the cache is bounded by the number of distinct queries. */
+    private static final Map<List<Object>, String> sqlCache = new ConcurrentHashMap<>();
+
+    private final Class<T> entityClass;
+    private final EntityMetadata metadata;
+    private final List<Object> shape = new ArrayList<>();
+    private final List<ColumnMetadata> parameterColumns = new ArrayList<>();
+    private final List<Object> parameterValues = new ArrayList<>();
+    private boolean hasPredicate;
+    private boolean hasOrder;
+    private int limit = -1;
+
+    private Criteria(Class<T> pEntityClass)
+    {
+        if(!EntityUtil.isEntity(pEntityClass))
+        {
+            throw new IllegalArgumentException("Class "+pEntityClass.getName()+" is not a entity !" +
+                    " Claas must have @Entity annotation to perform entity operations.");
+        }
+
+        this.entityClass = pEntityClass;
+        this.metadata = EntityMetadataRegistry.getMetadata(pEntityClass);
+        shape.add(pEntityClass);
+    }
+
+    /**
+     * Creates criteria that selects all entities of given class until predicates are added.
+     *
+     * @param pEntityClass the entity class object
+     * @param <T>          the entity type
+     * @return             the criteria
+     *
+     * @throws IllegalArgumentException Thrown If class is not an entity.
+     */
+    public static <T> Criteria<T> of(Class<T> pEntityClass)
+    {
+        return new Criteria<>(pEntityClass);
+    }
+
+    /**
+     * Adds first predicate of query.
+     *
+     * @param pFieldName the mapped entity field name
+     * @param pOperator  the comparison operator
+     * @param pValue     the compared value, instance of field type or It's wrapper
+     * @return           this criteria
+     *
+     * @throws IllegalArgumentException Thrown If field is not mapped or value does not fit field type.
+     */
+    public Criteria<T> where(String pFieldName, Operator pOperator, Object pValue)
+    {
+        if(hasPredicate)
+        {
+            throw new IllegalStateException("where is already called, use and/or to add predicates !");
+        }
+
+        return predicate(null, pFieldName, pOperator, pValue);
+    }
+
+    /**
+     * Adds first predicate of query with an operator that has no value, like IS_NULL.
+     *
+     * @param pFieldName the mapped entity field name
+     * @param pOperator  the operator without value
+     * @return           this criteria
+     */
+    public Criteria<T> where(String pFieldName, Operator pOperator)
+    {
+        return where(pFieldName, pOperator, null);
+    }
+
+    public Criteria<T> and(String pFieldName, Operator pOperator, Object pValue)
+    {
+        return predicate(AND, pFieldName, pOperator, pValue);
+    }
+
+    public Criteria<T> and(String pFieldName, Operator pOperator)
+    {
+        return and(pFieldName, pOperator, null);
+    }
+
+    public Criteria<T> or(String pFieldName, Operator pOperator, Object pValue)
+    {
+        return predicate(OR, pFieldName, pOperator, pValue);
+    }
+
+    public Criteria<T> or(String pFieldName, Operator pOperator)
+    {
+        return or(pFieldName, pOperator, null);
+    }
+
+    /**
+     * Adds ascending order of given field, orders are applied in the given order.
+     *
+     * @param pFieldName the mapped entity field name
+     * @return           this criteria
+     */
+    public Criteria<T> orderBy(String pFieldName)
+    {
+        return order(pFieldName, false);
+    }
+
+    public Criteria<T> orderByDescending(String pFieldName)
+    {
+        return order(pFieldName, true);
+    }
+
+    /**
+     * Limits the number of selected entities.
+     *
+     * @param pLimit the maximum number of entities
+     * @return       this criteria
+     */
+    public Criteria<T> limit(int pLimit)
+    {
+        if(pLimit < 0)
+        {
+            throw new IllegalArgumentException("Limit must not be negative ! limit = "+pLimit);
+        }
+
+        this.limit = pLimit;
+        return this;
+    }
+
+    /**
+     * Gets parameterized select query of this criteria from the cache, builds It If shape is new.
+     *
+     * @return the select query of all columns
+     */
+    public String toSql()
+    {
+        return toSql(ALL_COLUMNS);
+    }
+
+    /**
+     * Gets parameterized select query of given select list, select list is a part of the query shape.
+     *
+     * @param pSelectList the comma separated column names, like "name,surname"
+     * @return            the select query
+     */
+    public String toSql(String pSelectList)
+    {
+        return cachedSql(SELECT, pSelectList, () -> SELECT + pSelectList + FROM + metadata.getTableName());
+    }
+
+    /**
+     * Gets parameterized delete query of entities that match this criteria.
+     * Criteria without predicates deletes all entities.
+     *
+     * @return the delete query
+     *
+     * @throws IllegalStateException Thrown If criteria has ordering or limit.
+     */
+    public String toDeleteSql()
+    {
+        checkBulkOperation();
+        return cachedSql(DELETE, null, () -> DELETE + metadata.getTableName());
+    }
+
+    /**
+     * Gets parameterized update query that sets given fields of entities that match this criteria.
+     * Set values are the first parameters, they are bound with {@link #bindAssignments(PreparedStatement, Map)}.
+     *
+     * @param pFieldNames the mapped entity field names that will be set, id can not be set
+     * @return            the update query
+     *
+     * @throws IllegalArgumentException Thrown If a field is not mapped or is the id.
+     * @throws IllegalStateException    Thrown If criteria has ordering or limit.
+     */
+    public String toUpdateSql(Collection<String> pFieldNames)
+    {
+        checkBulkOperation();
+        List<String> columnNames = new ArrayList<>(pFieldNames.size());
+
+        for(String fieldName : pFieldNames)
+        {
+            ColumnMetadata column = column(fieldName);
+
+            if(column.isId())
+            {
+                throw new IllegalArgumentException("Id of "+entityClass.getName()+" can not be updated !");
+            }
+
+            columnNames.add(column.getName());
+        }
+
+        if(columnNames.isEmpty())
+        {
+            throw new IllegalArgumentException("At least one field must be set !");
+        }
+
+        return cachedSql(UPDATE, columnNames, () -> {
+            StringBuilder head = new StringBuilder(UPDATE).append(metadata.getTableName()).append(SET);
+
+            for(int i = 0; i < columnNames.size(); i++)
+            {
+                head.append(i == 0 ? "" : ",").append(columnNames.get(i)).append("=?");
+            }
+
+            return head.toString();
+        });
+    }
+
+    /**
+     * Binds set values of update query, they must be given in the order of {@link #toUpdateSql(Collection)}.
+     *
+     * @param pStatement the prepared update statement
+     * @param pValues    the field values keyed by field name, null sets sql null of non-primitive fields
+     * @return           the next parameter index, predicate parameters start from It
+     *
+     * @throws SQLException                  sql exceptions
+     * @throws UnsupportedFieldTypeException Thrown when a field data type is unsupported.
+     */
+    public int bindAssignments(PreparedStatement pStatement, Map<String, ?> pValues)
+            throws SQLException, UnsupportedFieldTypeException
+    {
+        int paramIndex = 1;
+
+        for(Map.Entry<String, ?> value : pValues.entrySet())
+        {
+            ColumnMetadata column = column(value.getKey());
+
+            if(value.getValue() != null)
+            {
+                checkValue(column, Operator.EQUAL, value.getValue());
+            }
+            else if(column.getType().isPrimitive())
+            {
+                throw new IllegalArgumentException(column.getName()+" field is primitive, It can not be set to null !");
+            }
+
+            column.bindValue(pStatement, paramIndex++, value.getValue());
+        }
+
+        return paramIndex;
+    }
+
+    /**
+     * Binds predicate values and limit to the statement of {@link #toSql()} using type handlers of columns.
+     *
+     * @param pStatement the prepared statement
+     *
+     * @throws SQLException                  sql exceptions
+     * @throws UnsupportedFieldTypeException Thrown when a field data type is unsupported.
+     */
+    public void bindParameters(PreparedStatement pStatement) throws SQLException, UnsupportedFieldTypeException
+    {
+        bindParameters(pStatement, 1);
+    }
+
+    /**
+     * Binds predicate values and limit starting from given parameter index.
+     *
+     * @param pStatement  the prepared statement
+     * @param pStartIndex the parameter index of first predicate value
+     *
+     * @throws SQLException                  sql exceptions
+     * @throws UnsupportedFieldTypeException Thrown when a field data type is unsupported.
+     */
+    public void bindParameters(PreparedStatement pStatement, int pStartIndex)
+            throws SQLException, UnsupportedFieldTypeException
+    {
+        int paramIndex = pStartIndex;
+
+        for(int i = 0; i < parameterColumns.size(); i++)
+        {
+            parameterColumns.get(i).bindValue(pStatement, paramIndex++, parameterValues.get(i));
+        }
+
+        if(limit >= 0)
+        {
+            pStatement.setInt(paramIndex, limit);
+        }
+    }
+
+    public Class<T> getEntityClass() {
+        return entityClass;
+    }
+
+    /**
+     * Gets the number of cached query shapes.
+     *
+     * @return the cached sql count
+     */
+    public static int getCachedSqlCount()
+    {
+        return sqlCache.size();
+    }
+
+    private Criteria<T> predicate(String pJoin, String pFieldName, Operator pOperator, Object pValue)
+    {
+        if(pJoin != null && !hasPredicate)
+        {
+            throw new IllegalStateException("where must be called before and/or !");
+        }
+
+        if(hasOrder)
+        {
+            throw new IllegalStateException("Predicates must be added before ordering !");
+        }
+
+        ColumnMetadata column = column(pFieldName);
+
+        if(pOperator.hasValue())
+        {
+            checkValue(column, pOperator, pValue);
+            parameterColumns.add(column);
+            parameterValues.add(pValue);
+        }
+        else if(pValue != null)
+        {
+            throw new IllegalArgumentException(pOperator+" operator has no value !");
+        }
+
+        hasPredicate = true;
+        shape.add(pJoin == null ? WHERE : pJoin);
+        shape.add(column.getName());
+        shape.add(pOperator);
+        return this;
+    }
+
+    private Criteria<T> order(String pFieldName, boolean pDescending)
+    {
+        hasOrder = true;
+        shape.add(pDescending ? DESC : ORDER_BY);
+        shape.add(column(pFieldName).getName());
+        return this;
+    }
+
+    private ColumnMetadata column(String pFieldName)
+    {
+        ColumnMetadata column = metadata.getColumn(pFieldName);
+
+        if(column == null)
+        {
+            throw new IllegalArgumentException(pFieldName+" is not a mapped field of "+entityClass.getName()+" !");
+        }
+
+        return column;
+    }
+
+    private void checkValue(ColumnMetadata pColumn, Operator pOperator, Object pValue)
+    {
+        if(pValue == null)
+        {
+            throw new IllegalArgumentException(pOperator+" value of "+pColumn.getName()
+                    +" is null ! Use IS_NULL or IS_NOT_NULL operators for null checks.");
+        }
+
+        Class<?> type = MethodType.methodType(pColumn.getType()).wrap().returnType();
+
+        if(!type.isInstance(pValue))
+        {
+            throw new IllegalArgumentException(pColumn.getName()+" value must be "+type.getName()
+                    +" ! Found "+pValue.getClass().getName());
+        }
+    }
+
+    private void checkBulkOperation()
+    {
+        if(hasOrder || limit >= 0)
+        {
+            throw new IllegalStateException("Bulk update and delete do not support ordering or limit !");
+        }
+    }
+
+    /**
+     * Gets query of this criteria shape from the cache, builds It If shape is new.
+     *
+     * @param pKind   the statement kind, select, update or delete
+     * @param pDetail the kind specific part of shape, like select list or set columns
+     * @param pHead   the builder of query part before the predicates
+     * @return        the query
+     */
+    private String cachedSql(String pKind, Object pDetail, Supplier<String> pHead)
+    {
+        List<Object> key = new ArrayList<>(shape);
+        key.add(limit >= 0);
+        key.add(pKind);
+        key.add(pDetail);
+        return sqlCache.computeIfAbsent(key, shapeKey -> buildSql(pHead.get()));
+    }
+
+    /**
+     * Builds query from shape of this criteria.
+     *
+     * @param pHead the query part before the predicates
+     * @return      the query
+     */
+    private String buildSql(String pHead)
+    {
+        StringBuilder sql = new StringBuilder(pHead);
+        boolean firstOrder = true;
+
+        for(int i = 1; i < shape.size(); i++)
+        {
+            Object part = shape.get(i);
+
+            if(part == ORDER_BY || part == DESC)
+            {
+                sql.append(firstOrder ? ORDER_BY : ",").append(shape.get(++i)).append(part == DESC ? DESC : "");
+                firstOrder = false;
+            }
+            else
+            {
+                sql.append((String) part).append(shape.get(++i)).append(((Operator) shape.get(++i)).getSql());
+            }
+        }
+
+        if(limit >= 0)
+        {
+            sql.append(LIMIT);
+        }
+
+        return sql.toString();
+    }
+}
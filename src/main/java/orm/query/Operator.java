@@ -0,0 +1,39 @@
+package orm.query;
+
+/**
+ * Comparison operators of criteria predicates.
+ */
+public enum Operator
+{
+    EQUAL("=?", true),
+    NOT_EQUAL("<>?", true),
+    LESS_THAN("<?", true),
+    LESS_OR_EQUAL("<=?", true),
+    GREATER_THAN(">?", true),
+    GREATER_OR_EQUAL(">=?", true),
+    LIKE(" LIKE ?", true),
+    IS_NULL(" IS NULL", false),
+    IS_NOT_NULL(" IS NOT NULL", false);
+
+    private final String sql;
+    private final boolean hasValue;
+
+    Operator(String pSql, boolean pHasValue)
+    {
+        this.sql = pSql;
+        this.hasValue = pHasValue;
+    }
+
+    /**
+     * Gets sql of operator that follows the column name, with It's parameter If It has a value.
+     *
+     * @return the operator sql
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    public boolean hasValue() {
+        return hasValue;
+    }
+}
@@ -0,0 +1,556 @@
+package orm.session;
+
+import orm.connection.TransactionManager;
+import orm.exception.EntityOperationException;
+import orm.jparepository.JpaRepository;
+import orm.metadata.EntityMetadata;
+import orm.metadata.EntityMetadataRegistry;
+import orm.metadata.EntitySnapshots;
+import orm.sql.ISqlStatementGenerator;
+import orm.sql.QueryGenerator;
+import orm.utilities.EntityUtil;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Unit of work that records new, changed and removed entities and writes them to db on {@link #flush()}.
+ * Writes are grouped by operation and entity class, inserts first, then updates and deletes,
+ * and each group is sent as JDBC batches of configured size, so a loop of persist/update/remove calls
+ * costs a few round trips instead of one per entity. Flush runs in one transaction,
+ * It joins the {@link TransactionManager} transaction of current thread If one is active.
+ * Entities that are loaded or persisted through the session are managed, their changes are found
+ * with dirty checking at flush, so they don't need to be registered with {@link #update(Object)}.
+ * Session is also an identity map, an entity of an id is loaded once and the same instance is returned
+ * to every lookup of the id in the session, without a db round trip.
+ * Rows written around the session, e.g. with bulk updates of a repository, are not seen by already managed
+ * entities until the session is cleared.
+ * A session is used by one thread, e.g. per request, and is not thread safe.
+ *
+ * <pre>
+ *     try (Session session = new Session())
+ *     {
+ *         for(Person person : people)
+ *         {
+ *             session.persist(person);
+ *         }
+ *
+ *         session.flush();
+ *     }
+ * </pre>
+ */
+public class Session implements AutoCloseable
+{
+    private static final Logger logger = Logger.getLogger(Session.class.getSimpleName());
+
+    private final JpaRepository<Object,Object> repository;
+    private final Map<Object, EntityState> states = new IdentityHashMap<>();
+    private final List<Object> registrationOrder = new ArrayList<>();
+    private final Map<Class<?>, Map<Object,Object>> identityMap = new HashMap<>();
+
+    public Session()
+    {
+        this(new JpaRepository<>(new QueryGenerator<>(), new ISqlStatementGenerator<>()));
+    }
+
+    public Session(JpaRepository<Object,Object> pRepository)
+    {
+        this.repository = pRepository;
+    }
+
+    /**
+     * Finds entity by id and manages It, so It's changes are written on flush.
+     * If the entity of id is already in the session, It is returned without a query.
+     *
+     * @param pEntityClassObject the entity class object
+     * @param pId                the entity id
+     * @param <E>                the entity type
+     * @return                   the entity, null If It is not found or It is removed in this session
+     * @throws EntityOperationException Thrown If query could not be executed.
+     */
+    public <E> E find(Class<E> pEntityClassObject, Object pId) throws EntityOperationException
+    {
+        Object entity = lookup(pEntityClassObject, pId);
+
+        if(entity == null)
+        {
+            entity = repository.findById(asObjectClass(pEntityClassObject), pId);
+
+            if(entity != null)
+            {
+                manage(entity);
+            }
+        }
+
+        return states.get(entity) == EntityState.REMOVED ? null : pEntityClassObject.cast(entity);
+    }
+
+    /**
+     * Finds entities of given ids and manages them, only ids that are not in the session are queried.
+     *
+     * @param pEntityClassObject the entity class object
+     * @param pIds               the entity ids
+     * @param <E>                the entity type
+     * @return                   found entities keyed by id in the order of given ids, ids that are not found
+     *                           or removed in this session have no entry
+     * @throws EntityOperationException Thrown If query could not be executed.
+     */
+    public <E> Map<Object,E> findAllByIds(Class<E> pEntityClassObject, Collection<?> pIds)
+            throws EntityOperationException
+    {
+        List<Object> missingIds = new ArrayList<>();
+
+        for(Object id : pIds)
+        {
+            if(id != null && lookup(pEntityClassObject, id) == null)
+            {
+                missingIds.add(id);
+            }
+        }
+
+        if(!missingIds.isEmpty())
+        {
+            for(Object entity : repository.findAllByIds(asObjectClass(pEntityClassObject), missingIds).values())
+            {
+                manage(entity);
+            }
+        }
+
+        Map<Object,E> results = new LinkedHashMap<>();
+
+        for(Object id : pIds)
+        {
+            Object entity = lookup(pEntityClassObject, id);
+
+            if(entity != null && states.get(entity) != EntityState.REMOVED)
+            {
+                results.put(id, pEntityClassObject.cast(entity));
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Finds all entities of given class and manages them, so their changes are written on flush.
+     * Rows of entities that are already in the session are mapped to the session instances,
+     * so their unflushed changes are kept.
+     *
+     * @param pEntityClassObject the entity class object
+     * @param <E>                the entity type
+     * @return                   the entities, except the entities that are removed in this session
+     * @throws EntityOperationException Thrown If query could not be executed.
+     */
+    public <E> List<E> findAll(Class<E> pEntityClassObject) throws EntityOperationException
+    {
+        List<E> results = new ArrayList<>();
+
+        for(Object entity : repository.findAll(asObjectClass(pEntityClassObject)))
+        {
+            Object managedEntity = manage(entity);
+
+            if(states.get(managedEntity) != EntityState.REMOVED)
+            {
+                results.add(pEntityClassObject.cast(managedEntity));
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Registers a new entity that is inserted on flush.
+     * Persisting a removed entity of the session cancels It's removal.
+     *
+     * @param pEntity the new entity object
+     */
+    public void persist(Object pEntity)
+    {
+        EntityState state = states.get(requireEntity(pEntity));
+
+        if(state == EntityState.REMOVED)
+        {
+            states.put(pEntity, EntityState.MANAGED);
+        }
+        else if(state == null)
+        {
+            register(pEntity, EntityState.NEW);
+        }
+    }
+
+    /**
+     * Registers a changed entity that is updated on flush.
+     * It's only needed for entities that are not managed by the session, e.g. entities of another session.
+     * Update is skipped If dirty checking finds no change.
+     *
+     * @param pEntity the changed entity object
+     * @throws IllegalStateException Thrown If session already has another instance of the same entity.
+     */
+    public void update(Object pEntity)
+    {
+        EntityState state = states.get(requireEntity(pEntity));
+
+        if(state == null)
+        {
+            putIdentity(pEntity);
+        }
+
+        if(state == null || state == EntityState.MANAGED)
+        {
+            register(pEntity, EntityState.DIRTY);
+        }
+    }
+
+    /**
+     * Registers an entity that is deleted on flush.
+     * Removing a new entity of the session only cancels It's insert.
+     *
+     * @param pEntity the removed entity object
+     * @throws IllegalArgumentException Thrown If entity is not new in the session and has no id,
+     *                                  so It can not be in db.
+     * @throws IllegalStateException    Thrown If session already has another instance of the same entity.
+     */
+    public void remove(Object pEntity)
+    {
+        EntityState state = states.get(requireEntity(pEntity));
+
+        if(state == EntityState.NEW)
+        {
+            detach(pEntity);
+            return;
+        }
+
+        if(getId(pEntity) == null)
+        {
+            throw new IllegalArgumentException("Entity "+pEntity+" has no id, It can not be removed !");
+        }
+
+        if(state == null)
+        {
+            putIdentity(pEntity);
+        }
+
+        register(pEntity, EntityState.REMOVED);
+    }
+
+    /**
+     * Removes entity from the session, It's pending changes are dropped and later lookups load It again.
+     *
+     * @param pEntity the entity object
+     */
+    public void detach(Object pEntity)
+    {
+        if(states.remove(pEntity) != null)
+        {
+            registrationOrder.remove(indexOf(pEntity));
+            Map<Object,Object> entities = identityMap.get(pEntity.getClass());
+            Object id = getId(pEntity);
+
+            if(entities != null && id != null && entities.get(id) == pEntity)
+            {
+                entities.remove(id);
+            }
+        }
+    }
+
+    /**
+     * Checks whether entity is registered to the session and not removed.
+     *
+     * @param pEntity the entity object
+     * @return        true, If entity is new, managed or changed in this session
+     */
+    public boolean contains(Object pEntity)
+    {
+        EntityState state = states.get(pEntity);
+        return state != null && state != EntityState.REMOVED;
+    }
+
+    /**
+     * Writes pending inserts, updates and deletes to db in one transaction.
+     * Each group of the same operation and entity class is sent as JDBC batches.
+     * After flush, inserted and updated entities are managed and removed entities are detached.
+     * If flush fails, the transaction is rolled back and pending changes are kept.
+     * If flush joins an outer transaction that is rolled back later, the session is cleared,
+     * since It's entities may not match db anymore, and changes made after flush are dropped.
+     *
+     * @throws EntityOperationException Thrown If a write fails.
+     */
+    public void flush() throws EntityOperationException
+    {
+        Map<Class<?>, List<Object>> inserts = new LinkedHashMap<>();
+        Map<Class<?>, List<Object>> updates = new LinkedHashMap<>();
+        Map<Class<?>, List<Object>> deletes = new LinkedHashMap<>();
+
+        for(Object entity : registrationOrder)
+        {
+            switch (states.get(entity))
+            {
+                case NEW:
+                    group(inserts, entity);
+                    break;
+                case MANAGED:
+                    if(EntitySnapshots.isEnabled() && isDirty(entity))
+                    {
+                        group(updates, entity);
+                    }
+                    break;
+                case DIRTY:
+                    if(isDirty(entity))
+                    {
+                        group(updates, entity);
+                    }
+                    break;
+                case REMOVED:
+                    group(deletes, entity);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        if(inserts.isEmpty() && updates.isEmpty() && deletes.isEmpty())
+        {
+            return;
+        }
+
+        if(TransactionManager.isActive())
+        {
+            TransactionManager.afterRollback(this, this::clear);
+        }
+
+        TransactionManager.inTransaction(() -> {
+            for(List<Object> entities : inserts.values())
+            {
+                repository.saveAll(entities);
+            }
+
+            for(List<Object> entities : updates.values())
+            {
+                repository.updateAll(entities);
+            }
+
+            for(List<Object> entities : deletes.values())
+            {
+                repository.removeAll(entities);
+            }
+        });
+
+        logger.log(Level.FINE,"Session flushed "+count(inserts)+" inserts, "+count(updates)+" updates and "
+                +count(deletes)+" deletes.");
+
+        for(List<Object> entities : inserts.values())
+        {
+            for(Object entity : entities)
+            {
+                // snapshot of inserted entity lets later flushes write only It's changes
+                EntitySnapshots.take(EntityMetadataRegistry.getMetadata(entity.getClass()), entity);
+                identityMap.computeIfAbsent(entity.getClass(), entityClass -> new HashMap<>())
+                        .put(getId(entity), entity);
+            }
+        }
+
+        for(List<Object> entities : deletes.values())
+        {
+            for(Object entity : entities)
+            {
+                Map<Object,Object> classEntities = identityMap.get(entity.getClass());
+                Object id = getId(entity);
+
+                if(classEntities != null && id != null)
+                {
+                    classEntities.remove(id);
+                }
+            }
+        }
+
+        List<Object> managedEntities = new ArrayList<>();
+
+        for(Object entity : registrationOrder)
+        {
+            if(states.get(entity) == EntityState.REMOVED)
+            {
+                states.remove(entity);
+            }
+            else
+            {
+                states.put(entity, EntityState.MANAGED);
+                managedEntities.add(entity);
+            }
+        }
+
+        registrationOrder.clear();
+        registrationOrder.addAll(managedEntities);
+    }
+
+    /**
+     * Detaches all entities and drops pending changes without writing them.
+     */
+    public void clear()
+    {
+        states.clear();
+        registrationOrder.clear();
+        identityMap.clear();
+    }
+
+    /**
+     * Checks whether session has inserts or deletes that are not flushed yet.
+     * Changes of managed entities are only found at flush, so they are not counted.
+     *
+     * @return true, If a new, removed or registered changed entity is pending
+     */
+    public boolean hasPendingChanges()
+    {
+        for(EntityState state : states.values())
+        {
+            if(state != EntityState.MANAGED)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Closes session, pending changes that are not flushed are dropped.
+     */
+    @Override
+    public void close()
+    {
+        if(hasPendingChanges())
+        {
+            logger.log(Level.WARNING,"Session is closed with changes that are not flushed, they are dropped !");
+        }
+
+        clear();
+    }
+
+    private void register(Object pEntity, EntityState pState)
+    {
+        if(states.put(pEntity, pState) == null)
+        {
+            registrationOrder.add(pEntity);
+        }
+    }
+
+    /**
+     * Manages loaded entity, If session already has an instance of It's id, that instance is kept.
+     *
+     * @param pEntity the loaded entity object
+     * @return        the session instance of entity
+     */
+    private Object manage(Object pEntity)
+    {
+        Object managedEntity = identityMap.computeIfAbsent(pEntity.getClass(), entityClass -> new HashMap<>())
+                .putIfAbsent(getId(pEntity), pEntity);
+
+        if(managedEntity != null)
+        {
+            return managedEntity;
+        }
+
+        register(pEntity, EntityState.MANAGED);
+        return pEntity;
+    }
+
+    private void putIdentity(Object pEntity)
+    {
+        Object id = getId(pEntity);
+
+        if(id == null)
+        {
+            return;
+        }
+
+        Object managedEntity = identityMap.computeIfAbsent(pEntity.getClass(), entityClass -> new HashMap<>())
+                .putIfAbsent(id, pEntity);
+
+        if(managedEntity != null && managedEntity != pEntity)
+        {
+            throw new IllegalStateException("Session already has another instance of "
+                    +pEntity.getClass().getName()+" with id = "+id+" !");
+        }
+    }
+
+    private Object lookup(Class<?> pEntityClassObject, Object pId)
+    {
+        Map<Object,Object> entities = identityMap.get(pEntityClassObject);
+        return entities == null ? null : entities.get(pId);
+    }
+
+    private static Object getId(Object pEntity)
+    {
+        return EntityMetadataRegistry.getMetadata(pEntity.getClass()).getBinder().getId(pEntity);
+    }
+
+    private int indexOf(Object pEntity)
+    {
+        for(int i = 0; i < registrationOrder.size(); i++)
+        {
+            if(registrationOrder.get(i) == pEntity)
+            {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private boolean isDirty(Object pEntity)
+    {
+        EntityMetadata metadata = EntityMetadataRegistry.getMetadata(pEntity.getClass());
+        return EntitySnapshots.dirtyMask(metadata, pEntity) != 0;
+    }
+
+    private static void group(Map<Class<?>, List<Object>> pGroups, Object pEntity)
+    {
+        pGroups.computeIfAbsent(pEntity.getClass(), entityClass -> new ArrayList<>()).add(pEntity);
+    }
+
+    private static int count(Map<Class<?>, List<Object>> pGroups)
+    {
+        int count = 0;
+
+        for(List<Object> entities : pGroups.values())
+        {
+            count += entities.size();
+        }
+
+        return count;
+    }
+
+    private static Object requireEntity(Object pEntity)
+    {
+        if(pEntity == null || !EntityUtil.isEntity(pEntity.getClass()))
+        {
+            throw new IllegalArgumentException("Only @Entity objects can be registered to a session ! Found "
+                    +(pEntity == null ? null : pEntity.getClass().getName()));
+        }
+
+        return pEntity;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Class<Object> asObjectClass(Class<?> pEntityClassObject)
+    {
+        return (Class<Object>) pEntityClassObject;
+    }
+
+    /**
+     * Pending operation of an entity in the session.
+     */
+    private enum EntityState
+    {
+        NEW,
+        MANAGED,
+        DIRTY,
+        REMOVED
+    }
+}
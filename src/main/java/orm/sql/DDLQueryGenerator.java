@@ -1,8 +1,15 @@
 package orm.sql;
 
-import annotations.Id;
-import orm.utilities.FieldUtil;
-import java.lang.reflect.Field;
+import annotations.GenerationType;
+import orm.connection.DbConnectionProvider;
+import orm.dialect.Dialect;
+import orm.metadata.ColumnMetadata;
+import orm.metadata.EntityMetadata;
+import orm.metadata.EntityMetadataRegistry;
+import orm.types.TypeHandler;
+import orm.types.TypeHandlerRegistry;
+
+import java.util.List;
 import java.util.Locale;
 
 /**
@@ -10,15 +17,37 @@ import java.util.Locale;
  * drop table operations using annotations and reflection.
  * Note that class just creates sql queries in String form,
  * not in sql statement form.
+ * Column types are decided by the sql dialect, identifiers are written unquoted like in all other queries.
  */
 public class DDLQueryGenerator implements IDDLQueryGenerator
 {
     private static final String CREATE_TABLE = "CREATE TABLE ";
     private static final String DROP_TABLE = "DROP TABLE ";
 
+    /** The sql dialect, null means the dialect of configured db. */
+    private final Dialect dialect;
+
+    /**
+     * Creates generator that uses the dialect of configured db.
+     */
+    public DDLQueryGenerator()
+    {
+        this(null);
+    }
+
+    /**
+     * Creates generator of given dialect, e.g. to create scripts of another db.
+     *
+     * @param pDialect the sql dialect
+     */
+    public DDLQueryGenerator(Dialect pDialect)
+    {
+        this.dialect = pDialect;
+    }
+
     /**
-     * Creates "Create Table" sql query of given entity using custom
-     * annotations and reflection.
+     * Creates "Create Table" sql query of given entity using entity
+     * metadata, registered type handlers and column types of dialect.
      *
      * @param pClassObject the class object of entity
      * @return             the sql create table query of entity in string form
@@ -26,40 +55,35 @@ public class DDLQueryGenerator implements IDDLQueryGenerator
     @Override
     public String createCreateTableQuery(Class<?> pClassObject)
     {
-        Field[] fields =  pClassObject.getDeclaredFields();
-        String tableName = pClassObject.getSimpleName().toLowerCase(Locale.ROOT);
+        EntityMetadata metadata = EntityMetadataRegistry.getMetadata(pClassObject);
+        List<ColumnMetadata> columns = metadata.getAllColumns();
+        String tableName = metadata.getTableName();
+        Dialect dialect = getDialect();
         StringBuilder sqlBuilder =  new StringBuilder();
 
-        if(fields.length != 0)
+        if(!columns.isEmpty())
         {
             sqlBuilder.append(CREATE_TABLE).append(tableName).append("(");
 
-            Field primaryKeyField = null;
-
-            for(int i = 0; i< fields.length; i++)
+            for(int i = 0; i< columns.size(); i++)
             {
-                String dataTyeOfField = FieldUtil.findDataTypeOfField(fields[i]);
+                ColumnMetadata column = columns.get(i);
+                TypeHandler<?> typeHandler = TypeHandlerRegistry.find(column.getField().getType());
+                String dataTyeOfField = typeHandler == null ? null
+                        : column.isId() && metadata.getIdStrategy() == GenerationType.IDENTITY
+                        ? dialect.getIdentityColumnType(typeHandler) : dialect.getColumnType(typeHandler);
 
-                if(i == 0)
-                {
-                    sqlBuilder.append(fields[i].getName()).append(" ").append(dataTyeOfField);
-                }
-                else
+                if(i != 0)
                 {
-                    fields[i].setAccessible(true);
-                    sqlBuilder.append(",").append(fields[i].getName())
-                            .append(" ").append(dataTyeOfField);
+                    sqlBuilder.append(",");
                 }
 
-                if(fields[i].isAnnotationPresent(Id.class))
-                {
-                    primaryKeyField = fields[i];
-                }
+                sqlBuilder.append(column.getName()).append(" ").append(dataTyeOfField);
             }
 
-            if (null != primaryKeyField)
+            if (null != metadata.getIdColumn())
             {
-                sqlBuilder.append(",primary key(").append(primaryKeyField.getName()).append(")");
+                sqlBuilder.append(",primary key(").append(metadata.getIdColumnName()).append(")");
             }
             sqlBuilder.append(")");
         }
@@ -71,9 +95,20 @@ public class DDLQueryGenerator implements IDDLQueryGenerator
         return sqlBuilder.toString();
     }
 
+    /**
+     * Creates "Drop Table" sql query of given entity.
+     *
+     * @param pEntityClassName the simple class name of entity
+     * @return                 the sql drop table query of entity in string form
+     */
     @Override
     public String createDropTableQuery(String pEntityClassName)
     {
-        return DROP_TABLE+pEntityClassName;
+        return DROP_TABLE+pEntityClassName.toLowerCase(Locale.ROOT);
+    }
+
+    private Dialect getDialect()
+    {
+        return dialect != null ? dialect : DbConnectionProvider.getDialect();
     }
 }
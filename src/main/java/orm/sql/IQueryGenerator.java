@@ -12,5 +12,10 @@ public interface IQueryGenerator<T>
     String createFindAllQuery(Class<?> pEntityClassObject);
     String createInsertQuery(Class<?> pEntityClassObject);
     String createUpdateQuery(Class<?> pEntityClassObject);
+    String createUpdateQuery(Class<?> pEntityClassObject, long pColumnMask);
     String createDeleteQuery(Class<?> pEntityClassObject);
+    String createUpsertQuery(Class<?> pEntityClassObject);
+    String createFindFirstPageQuery(Class<?> pEntityClassObject);
+    String createFindPageQuery(Class<?> pEntityClassObject);
+    String createFindByIdsQuery(Class<?> pEntityClassObject, int pArity);
 }
@@ -1,16 +1,23 @@
 package orm.sql;
 
-import annotations.Column;
-import annotations.Id;
-import orm.connection.DbConnectionProvider;
+import annotations.GenerationType;
+import orm.connection.StatementCache;
 import orm.exception.EntityOperationException;
 import orm.exception.UnsupportedFieldTypeException;
-import orm.utilities.IdGenerator;
+import orm.id.IdAllocators;
+import orm.metadata.ColumnMetadata;
+import orm.metadata.EntityMetadata;
+import orm.metadata.EntityMetadataRegistry;
+import orm.metadata.EntitySnapshots;
+import orm.query.Criteria;
+import orm.types.TypeHandler;
 
-import java.lang.reflect.Field;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -26,8 +33,9 @@ public class ISqlStatementGenerator<T,ID> implements IStatementGenerator<T,ID>
     private static final Logger logger = Logger.getLogger(PreparedStatement.class.getSimpleName());
 
     /**
-     * Creates insert prepared statement using reflection and custom annotations.
+     * Creates insert prepared statement using cached entity metadata.
      *
+     * @param pConnection the borrowed db connection
      * @param sql     the insert query of entity in String form that needs to be parameterized
      * @param pEntity the entity object that will be inserted
      * @return        the insert prepared statement that can be executable
@@ -44,58 +52,21 @@ public class ISqlStatementGenerator<T,ID> implements IStatementGenerator<T,ID>
      *                                the specified class, field, method or constructor.
      */
     @Override
-    public PreparedStatement createInsertStatement(String sql, T pEntity) throws SQLException,
-            ClassNotFoundException, UnsupportedFieldTypeException, IllegalAccessException
+    public PreparedStatement createInsertStatement(Connection pConnection, String sql, T pEntity) throws SQLException,
+            ClassNotFoundException, UnsupportedFieldTypeException, IllegalAccessException, EntityOperationException
     {
         PreparedStatement preparedStatement = null;
-        Class<?> entityClassObject = pEntity.getClass();
-        Field[] fields = entityClassObject.getDeclaredFields();
-        String entityName =  entityClassObject.getSimpleName();
+        EntityMetadata metadata = EntityMetadataRegistry.getMetadata(pEntity.getClass());
 
-        if(!(fields.length == 0))
+        if(!metadata.getAllColumns().isEmpty())
         {
-            Connection connection = DbConnectionProvider.getDbConnection();
-            preparedStatement = connection.prepareStatement(sql);
-            int paramIndex = 2;
-
-            for (Field field : fields)
-            {
-                field.setAccessible(true);
-                if(field.isAnnotationPresent(Id.class))
-                {
-                    long id = IdGenerator.getId();
-                    preparedStatement.setLong(1,id );
-                }
-                else if (field.isAnnotationPresent(Column.class))
-                {
-                    if(field.getType() == int.class )
-                    {
-                        preparedStatement.setInt(paramIndex, (Integer) field.get(pEntity));
-                        paramIndex++;
-                    }
-                    else if( field.getType() == String.class)
-                    {
-                        preparedStatement.setString(paramIndex, (String) field.get(pEntity));
-                        paramIndex++;
-                    }
-                    else if( field.getType() == Long.class)
-                    {
-                        preparedStatement.setLong(paramIndex, (Long) field.get(pEntity));
-                    }
-                    else {
-                        throw new UnsupportedFieldTypeException(field.getName()+" field of "
-                                +entityClassObject.getName()+" type is unsupported! "+field.getType());
-                    }
-                }
-                else
-                {
-                    logger.log(Level.WARNING,field.getName()+" field of "+entityName+" has no @Column annotation !");
-                }
-            }
+            preparedStatement = StatementCache.prepare(pConnection, sql,
+                    metadata.getIdStrategy() == GenerationType.IDENTITY);
+            bindInsertStatement(preparedStatement, pEntity);
         }
         else
         {
-            logger.log(Level.WARNING,"Entity "+entityName+" does not have any fields ! " +
+            logger.log(Level.WARNING,"Entity "+metadata.getTableName()+" does not have any fields ! " +
                     "This entity could not be created !");
         }
 
@@ -105,7 +76,9 @@ public class ISqlStatementGenerator<T,ID> implements IStatementGenerator<T,ID>
     /**
      * Creates findById prepared statement using reflection and custom annotations.
      *
+     * @param pConnection the borrowed db connection
      * @param sql the selectById query in String form that needs to be parameterized
+     * @param pEntityClassObject the entity class object, id is bound with the type handler of It's id column
      * @param pId the entity id
      * @return    findById prepared statement that can be executable
      *
@@ -113,19 +86,22 @@ public class ISqlStatementGenerator<T,ID> implements IStatementGenerator<T,ID>
      *                                error or other errors.
      * @throws ClassNotFoundException Thrown when an application tries to load in a class through its string name
      *                                but no definition for the class with the specified name could be found.
+     * @throws UnsupportedFieldTypeException Thrown when id field data type is unsupported.
      */
     @Override
-    public PreparedStatement createSelectByIdStatement(String sql,ID pId)
-            throws SQLException, ClassNotFoundException
+    public PreparedStatement createSelectByIdStatement(Connection pConnection, String sql,
+                                                       Class<?> pEntityClassObject, ID pId)
+            throws SQLException, ClassNotFoundException, UnsupportedFieldTypeException
     {
-        PreparedStatement statement =  DbConnectionProvider.getDbConnection().prepareStatement(sql);
-        statement.setLong(1, (Long) pId);
+        PreparedStatement statement =  StatementCache.prepare(pConnection, sql);
+        EntityMetadataRegistry.getMetadata(pEntityClassObject).getIdColumn().bindValue(statement, 1, pId);
         return statement;
     }
 
     /**
      * Creates findAll prepared statement.
      *
+     * @param pConnection the borrowed db connection
      * @param sql the selectAll query in String form
      * @return    findAll prepared statement that can be executable
      *
@@ -135,14 +111,122 @@ public class ISqlStatementGenerator<T,ID> implements IStatementGenerator<T,ID>
      *                                but no definition for the class with the specified name could be found.
      */
     @Override
-    public PreparedStatement createSelectAllIdStatement(String sql) throws SQLException, ClassNotFoundException
+    public PreparedStatement createSelectAllIdStatement(Connection pConnection, String sql) throws SQLException, ClassNotFoundException
+    {
+        return StatementCache.prepare(pConnection, sql);
+    }
+
+    /**
+     * Creates multi-get prepared statement.
+     * Parameters after the last id are padded with the last id, duplicate ids do not change the result.
+     *
+     * @param pConnection        the borrowed db connection
+     * @param sql                the multi-get query of given arity
+     * @param pEntityClassObject the entity class object, ids are bound with the type handler of It's id column
+     * @param pIds               the ids, at least one and at most arity ids
+     * @param pArity             the IN list arity of query
+     * @return                   multi-get prepared statement that can be executable
+     *
+     * @throws SQLException                  An exception that provides information on a database access
+     *                                       error or other errors.
+     * @throws UnsupportedFieldTypeException Thrown when id field data type is unsupported.
+     */
+    @Override
+    public PreparedStatement createSelectByIdsStatement(Connection pConnection, String sql,
+                                                        Class<?> pEntityClassObject, List<ID> pIds, int pArity)
+            throws SQLException, UnsupportedFieldTypeException
+    {
+        PreparedStatement statement = StatementCache.prepare(pConnection, sql);
+        ColumnMetadata idColumn = EntityMetadataRegistry.getMetadata(pEntityClassObject).getIdColumn();
+
+        for(int i = 0; i < pArity; i++)
+        {
+            idColumn.bindValue(statement, i + 1, pIds.get(Math.min(i, pIds.size() - 1)));
+        }
+
+        return statement;
+    }
+
+    /**
+     * Creates prepared statement of criteria query.
+     * Query sql is cached per criteria shape, so the statement is taken from the statement cache
+     * when the same kind of criteria is executed again.
+     *
+     * @param pConnection the borrowed db connection
+     * @param sql         the criteria query sql, with all columns or a projection select list
+     * @param pCriteria   the criteria query
+     * @return            criteria prepared statement that can be executable
+     *
+     * @throws SQLException                  sql exceptions
+     * @throws UnsupportedFieldTypeException Thrown when a field data type is unsupported.
+     */
+    @Override
+    public PreparedStatement createCriteriaStatement(Connection pConnection, String sql, Criteria<T> pCriteria)
+            throws SQLException, UnsupportedFieldTypeException
+    {
+        PreparedStatement statement = StatementCache.prepare(pConnection, sql);
+        pCriteria.bindParameters(statement);
+        return statement;
+    }
+
+    /**
+     * Creates prepared statement of a bulk update query, set values are bound before the predicate values.
+     *
+     * @param pConnection the borrowed db connection
+     * @param sql         the update query of criteria
+     * @param pCriteria   the criteria of updated entities
+     * @param pValues     the set values keyed by field name, in the order of the update query
+     * @return            update prepared statement that can be executable
+     *
+     * @throws SQLException                  sql exceptions
+     * @throws UnsupportedFieldTypeException Thrown when a field data type is unsupported.
+     */
+    @Override
+    public PreparedStatement createUpdateWhereStatement(Connection pConnection, String sql, Criteria<T> pCriteria,
+                                                        Map<String, ?> pValues)
+            throws SQLException, UnsupportedFieldTypeException
     {
-        return DbConnectionProvider.getDbConnection().prepareStatement(sql);
+        PreparedStatement statement = StatementCache.prepare(pConnection, sql);
+        pCriteria.bindParameters(statement, pCriteria.bindAssignments(statement, pValues));
+        return statement;
     }
 
     /**
-     * Creates update prepared statement using reflection and custom annotations.
+     * Creates keyset page prepared statement.
      *
+     * @param pConnection        the borrowed db connection
+     * @param sql                the first page query If id is null, the page query otherwise
+     * @param pEntityClassObject the entity class object, id is bound with the type handler of It's id column
+     * @param pAfterId           the last id of previous page, null for first page
+     * @param pLimit             the maximum number of rows
+     * @return                   page prepared statement that can be executable
+     *
+     * @throws SQLException                  An exception that provides information on a database access
+     *                                       error or other errors.
+     * @throws UnsupportedFieldTypeException Thrown when id field data type is unsupported.
+     */
+    @Override
+    public PreparedStatement createSelectPageStatement(Connection pConnection, String sql,
+                                                       Class<?> pEntityClassObject, ID pAfterId, int pLimit)
+            throws SQLException, UnsupportedFieldTypeException
+    {
+        PreparedStatement statement = StatementCache.prepare(pConnection, sql);
+        int paramIndex = 1;
+
+        if(pAfterId != null)
+        {
+            EntityMetadataRegistry.getMetadata(pEntityClassObject).getIdColumn()
+                    .bindValue(statement, paramIndex++, pAfterId);
+        }
+
+        statement.setInt(paramIndex, pLimit);
+        return statement;
+    }
+
+    /**
+     * Creates update prepared statement using cached entity metadata.
+     *
+     * @param pConnection the borrowed db connection
      * @param sql    the update query in String form that needs to be parameterized
      * @param entity the entity that will be updated
      * @return       update prepared statement that can be executable
@@ -160,57 +244,61 @@ public class ISqlStatementGenerator<T,ID> implements IStatementGenerator<T,ID>
      * @throws EntityOperationException exceptions that may occur while saving this entity to db.
      */
     @Override
-    public PreparedStatement createUpdateStatement(String sql, T entity) throws SQLException, ClassNotFoundException,
+    public PreparedStatement createUpdateStatement(Connection pConnection, String sql, T entity) throws SQLException, ClassNotFoundException,
             UnsupportedFieldTypeException, EntityOperationException, IllegalAccessException
     {
-        PreparedStatement statement = DbConnectionProvider.getDbConnection().prepareStatement(sql);
-        Field[] fields = entity.getClass().getDeclaredFields();
-        Long id = null;
-        int paramIndex = 1;
+        findId(EntityMetadataRegistry.getMetadata(entity.getClass()), entity);
+        PreparedStatement statement = StatementCache.prepare(pConnection, sql);
+        bindUpdateStatement(statement, entity);
+        return statement;
+    }
 
-        for(Field field :  fields)
-        {
-            field.setAccessible(true);
+    /**
+     * Creates update prepared statement that binds only changed columns of entity.
+     *
+     * @param pConnection the borrowed db connection
+     * @param sql         the update query of given column mask
+     * @param entity      the entity that will be updated
+     * @param pColumnMask the changed column mask, {@link EntitySnapshots#ALL_COLUMNS} for all columns
+     * @return            update prepared statement that can be executable
+     *
+     * @throws SQLException                  sql exceptions
+     * @throws UnsupportedFieldTypeException Thrown when a class field data type is unsupported.
+     * @throws EntityOperationException      Thrown If entity has no id or id is null.
+     */
+    @Override
+    public PreparedStatement createUpdateStatement(Connection pConnection, String sql, T entity, long pColumnMask)
+            throws SQLException, UnsupportedFieldTypeException, EntityOperationException
+    {
+        EntityMetadata metadata = EntityMetadataRegistry.getMetadata(entity.getClass());
+        Object id = findId(metadata, entity);
+        PreparedStatement statement = StatementCache.prepare(pConnection, sql);
 
-            if(field.isAnnotationPresent(Id.class))
-            {
-                id = (Long) field.get(entity);
-            }
-            else if(field.isAnnotationPresent(Column.class))
-            {
-                if(field.getType() == int.class )
-                {
-                    statement.setInt(paramIndex,field.getInt(entity));
-                    paramIndex++;
-                }
-                else if( field.getType() == String.class)
-                {
-                    statement.setString(paramIndex, (String) field.get(entity));
-                    paramIndex++;
-                }
-                else if( field.getType() == Long.class)
-                {
-                    statement.setLong(paramIndex,field.getLong(entity));
-                }
-                else {
-                    throw new UnsupportedFieldTypeException(field.getName()+" field of "
-                            +entity.getClass().getName()+" type is unsupported! "+field.getType());
-                }
-            }
+        if(pColumnMask == EntitySnapshots.ALL_COLUMNS)
+        {
+            bindUpdateStatement(statement, entity);
+            return statement;
         }
 
-        if( id == null)
+        List<ColumnMetadata> columns = metadata.getColumns();
+        int paramIndex = 1;
+
+        for(int i = 0; i < columns.size() && i < Long.SIZE; i++)
         {
-            throw new EntityOperationException("Id of Entity is null for "+entity.getClass().getName());
+            if((pColumnMask & (1L << i)) != 0)
+            {
+                columns.get(i).bind(statement, paramIndex++, entity);
+            }
         }
 
-        statement.setLong(paramIndex,id);
+        metadata.getIdColumn().bindValue(statement, paramIndex, id);
         return statement;
     }
 
     /**
-     * Creates delete prepared statement using reflection and custom annotations.
+     * Creates delete prepared statement using cached entity metadata.
      *
+     * @param pConnection the borrowed db connection
      * @param sql    the delete query in String form that needs to be parameterized
      * @param entity delete prepared statement that can be executable
      * @return       delete prepared statement that can be executable
@@ -224,33 +312,186 @@ public class ISqlStatementGenerator<T,ID> implements IStatementGenerator<T,ID>
      *                                set or get a field, or invoke a method, but the currently
      *                                executing method does not have access to the definition of
      *                                the specified class, field, method or constructor.
+     * @throws UnsupportedFieldTypeException Thrown when id field data type is unsupported.
      * @throws EntityOperationException exceptions that may occur while saving this entity to db.
      */
     @Override
-    public PreparedStatement createDeleteStatement(String sql, T entity) throws
-            SQLException, ClassNotFoundException, IllegalAccessException, EntityOperationException
+    public PreparedStatement createDeleteStatement(Connection pConnection, String sql, T entity) throws
+            SQLException, ClassNotFoundException, IllegalAccessException, UnsupportedFieldTypeException,
+            EntityOperationException
     {
-        Field[] fields =  entity.getClass().getDeclaredFields();
-        Long id = null;
+        findId(EntityMetadataRegistry.getMetadata(entity.getClass()), entity);
+        PreparedStatement statement =  StatementCache.prepare(pConnection, sql);
+        bindDeleteStatement(statement, entity);
+        return statement;
+    }
 
-        for(Field field :  fields)
+    /**
+     * Binds id and column values of entity to insert statement.
+     * It is used for single inserts and for each row of an insert batch.
+     * A new id is generated and set to entity unless ids of entity are assigned by application
+     * or generated by db, id is not bound for db generated ids.
+     *
+     * @param pStatement the prepared insert statement
+     * @param pEntity    the entity object that will be inserted
+     *
+     * @throws SQLException                  sql exceptions
+     * @throws UnsupportedFieldTypeException Thrown when a class field data type is unsupported.
+     * @throws EntityOperationException      Thrown If assigned id of entity is null.
+     */
+    @Override
+    public void bindInsertStatement(PreparedStatement pStatement, T pEntity)
+            throws SQLException, UnsupportedFieldTypeException, EntityOperationException
+    {
+        EntityMetadata metadata = EntityMetadataRegistry.getMetadata(pEntity.getClass());
+
+        if(metadata.getIdStrategy() == GenerationType.IDENTITY)
         {
-            field.setAccessible(true);
+            metadata.<T>getBinder().bindColumns(pStatement, pEntity, 1);
+            return;
+        }
 
-            if(field.isAnnotationPresent(Id.class))
+        metadata.getIdColumn().bindValue(pStatement, 1, generateId(metadata, pEntity));
+        metadata.<T>getBinder().bindColumns(pStatement, pEntity, 2);
+    }
+
+    /**
+     * Reads db generated ids of executed insert statement or batch with the type handler of id column
+     * and sets them to entities.
+     *
+     * @param pStatement the executed insert statement that was prepared to return generated keys
+     * @param pEntities  the inserted entities in execution order
+     *
+     * @throws SQLException                  sql exceptions, or If driver returns less keys than entities
+     * @throws UnsupportedFieldTypeException Thrown when id field data type is unsupported.
+     */
+    @Override
+    public void readGeneratedIds(PreparedStatement pStatement, List<T> pEntities)
+            throws SQLException, UnsupportedFieldTypeException
+    {
+        if(pEntities.isEmpty())
+        {
+            return;
+        }
+
+        ColumnMetadata idColumn = EntityMetadataRegistry.getMetadata(pEntities.get(0).getClass()).getIdColumn();
+        TypeHandler<?> idHandler = idColumn.getTypeHandler();
+        int index = 0;
+
+        try (ResultSet keys = pStatement.getGeneratedKeys())
+        {
+            while(index < pEntities.size() && keys.next())
             {
-                id = (Long) field.get(entity);
+                idColumn.setValue(pEntities.get(index++), idHandler.read(keys, 1));
             }
         }
 
+        if(index < pEntities.size())
+        {
+            throw new SQLException("Db returned "+index+" generated ids for "+pEntities.size()+" inserted entities !");
+        }
+    }
+
+    /**
+     * Generates id of inserted entity with the id allocator of entity and sets It to entity.
+     * Assigned ids are taken from entity as they are.
+     *
+     * @param pMetadata the entity metadata
+     * @param pEntity   the entity object
+     * @return          the id of entity
+     *
+     * @throws SQLException             sql exceptions while reserving ids
+     * @throws EntityOperationException Thrown If assigned id of entity is null.
+     */
+    private Object generateId(EntityMetadata pMetadata, T pEntity) throws SQLException, EntityOperationException
+    {
+        if(pMetadata.getIdStrategy() == GenerationType.ASSIGNED)
+        {
+            return findId(pMetadata, pEntity);
+        }
+
+        long id = IdAllocators.get(pMetadata).nextId();
+        pMetadata.getIdColumn().setValue(pEntity, id);
+        return id;
+    }
+
+    /**
+     * Binds id and column values of entity to upsert statement, in the same order as insert statement.
+     * Unlike insert, the id of entity is used instead of a new id.
+     *
+     * @param pStatement the prepared upsert statement
+     * @param pEntity    the entity object that will be inserted or updated
+     *
+     * @throws SQLException                  sql exceptions
+     * @throws UnsupportedFieldTypeException Thrown when a class field data type is unsupported.
+     * @throws EntityOperationException      Thrown If entity has no id or id is null.
+     */
+    @Override
+    public void bindUpsertStatement(PreparedStatement pStatement, T pEntity)
+            throws SQLException, UnsupportedFieldTypeException, EntityOperationException
+    {
+        EntityMetadata metadata = EntityMetadataRegistry.getMetadata(pEntity.getClass());
+        metadata.getIdColumn().bindValue(pStatement, 1, findId(metadata, pEntity));
+        metadata.<T>getBinder().bindColumns(pStatement, pEntity, 2);
+    }
+
+    /**
+     * Binds column values and id of entity to update statement.
+     *
+     * @param pStatement the prepared update statement
+     * @param pEntity    the entity that will be updated
+     *
+     * @throws SQLException                  sql exceptions
+     * @throws UnsupportedFieldTypeException Thrown when a class field data type is unsupported.
+     * @throws EntityOperationException      Thrown If entity has no id or id is null.
+     */
+    @Override
+    public void bindUpdateStatement(PreparedStatement pStatement, T pEntity)
+            throws SQLException, UnsupportedFieldTypeException, EntityOperationException
+    {
+        EntityMetadata metadata = EntityMetadataRegistry.getMetadata(pEntity.getClass());
+        Object id = findId(metadata, pEntity);
+        int paramIndex = metadata.<T>getBinder().bindColumns(pStatement, pEntity, 1);
+
+        metadata.getIdColumn().bindValue(pStatement, paramIndex, id);
+    }
+
+    /**
+     * Binds id of entity to delete statement.
+     *
+     * @param pStatement the prepared delete statement
+     * @param pEntity    the entity that will be deleted
+     *
+     * @throws SQLException                  sql exceptions
+     * @throws UnsupportedFieldTypeException Thrown when id field data type is unsupported.
+     * @throws EntityOperationException      Thrown If entity has no id or id is null.
+     */
+    @Override
+    public void bindDeleteStatement(PreparedStatement pStatement, T pEntity)
+            throws SQLException, UnsupportedFieldTypeException, EntityOperationException
+    {
+        EntityMetadata metadata = EntityMetadataRegistry.getMetadata(pEntity.getClass());
+        metadata.getIdColumn().bindValue(pStatement, 1, findId(metadata, pEntity));
+    }
+
+    /**
+     * Finds id value of entity using cached entity metadata.
+     *
+     * @param pMetadata the entity metadata
+     * @param pEntity   the entity object
+     * @return          the id of entity
+     *
+     * @throws EntityOperationException Thrown If entity has no id or id is null.
+     */
+    private Object findId(EntityMetadata pMetadata, T pEntity) throws EntityOperationException
+    {
+        Object id = pMetadata.<T>getBinder().getId(pEntity);
+
         if( id == null)
         {
-            throw new EntityOperationException("Creating update statement is failed ! Id of Entity is null for "
-                    +entity.getClass().getName());
+            throw new EntityOperationException("Id of Entity is null for "+pEntity.getClass().getName());
         }
 
-        PreparedStatement statement =  DbConnectionProvider.getDbConnection().prepareStatement(sql);
-        statement.setLong(1,id);
-        return statement;
+        return id;
     }
 }
@@ -1,9 +1,14 @@
 package orm.sql;
 
+import orm.exception.EntityOperationException;
 import orm.exception.UnsupportedFieldTypeException;
+import orm.query.Criteria;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
 
 /**
  * The interface class that has method signature that creates
@@ -14,9 +19,19 @@ import java.sql.SQLException;
  */
 public interface IStatementGenerator<T,ID>
 {
-    PreparedStatement createInsertStatement(String sql, T entity) throws SQLException, ClassNotFoundException,UnsupportedFieldTypeException, IllegalAccessException;
-    PreparedStatement createSelectByIdStatement(String sql,ID pId) throws SQLException, ClassNotFoundException;
-    PreparedStatement createSelectAllIdStatement(String sql) throws SQLException, ClassNotFoundException;
-    PreparedStatement createUpdateStatement(String sql, T entity) throws Exception;
-    PreparedStatement createDeleteStatement(String sql, T entity) throws Exception;
+    PreparedStatement createInsertStatement(Connection pConnection, String sql, T entity) throws SQLException, ClassNotFoundException,UnsupportedFieldTypeException, IllegalAccessException, EntityOperationException;
+    PreparedStatement createSelectByIdStatement(Connection pConnection, String sql, Class<?> pEntityClassObject, ID pId) throws SQLException, ClassNotFoundException, UnsupportedFieldTypeException;
+    PreparedStatement createSelectAllIdStatement(Connection pConnection, String sql) throws SQLException, ClassNotFoundException;
+    PreparedStatement createSelectByIdsStatement(Connection pConnection, String sql, Class<?> pEntityClassObject, List<ID> pIds, int pArity) throws SQLException, UnsupportedFieldTypeException;
+    PreparedStatement createCriteriaStatement(Connection pConnection, String sql, Criteria<T> pCriteria) throws SQLException, UnsupportedFieldTypeException;
+    PreparedStatement createUpdateWhereStatement(Connection pConnection, String sql, Criteria<T> pCriteria, Map<String, ?> pValues) throws SQLException, UnsupportedFieldTypeException;
+    PreparedStatement createSelectPageStatement(Connection pConnection, String sql, Class<?> pEntityClassObject, ID pAfterId, int pLimit) throws SQLException, UnsupportedFieldTypeException;
+    PreparedStatement createUpdateStatement(Connection pConnection, String sql, T entity) throws Exception;
+    PreparedStatement createUpdateStatement(Connection pConnection, String sql, T entity, long pColumnMask) throws Exception;
+    PreparedStatement createDeleteStatement(Connection pConnection, String sql, T entity) throws Exception;
+    void bindInsertStatement(PreparedStatement pStatement, T pEntity) throws SQLException, UnsupportedFieldTypeException, EntityOperationException;
+    void readGeneratedIds(PreparedStatement pStatement, List<T> pEntities) throws SQLException, UnsupportedFieldTypeException;
+    void bindUpsertStatement(PreparedStatement pStatement, T pEntity) throws SQLException, UnsupportedFieldTypeException, EntityOperationException;
+    void bindUpdateStatement(PreparedStatement pStatement, T pEntity) throws Exception;
+    void bindDeleteStatement(PreparedStatement pStatement, T pEntity) throws Exception;
 }
@@ -1,27 +1,20 @@
 package orm.sql;
 
-import annotations.Column;
-import orm.utilities.EntityUtil;
-import java.lang.reflect.Field;
-import java.util.Locale;
+import annotations.GenerationType;
+import orm.connection.DbConnectionProvider;
+import orm.metadata.EntityMetadata;
+import orm.metadata.EntityMetadataRegistry;
 
 /**
  * Implementation class of query generator that creates
  * base entity operation queries in string form.
+ * Queries are built once per entity class and cached in {@link EntityMetadataRegistry}.
  * Note that, Created slq queries needs to be parameterized.
  *
  * @param <T> parameterized entity type
  */
 public class QueryGenerator<T> implements IQueryGenerator<T>
 {
-    private static final String INSERT_INTO = "INSERT INTO ";
-    private static final String VALUES = " VALUES";
-    private static final String BASE_SELECT = "SELECT * FROM ";
-    private static final String WHERE = " WHERE ";
-    private static final String DELETE = "DELETE FROM ";
-    private static final String UPDATE = "UPDATE ";
-    private static final String SET = " SET ";
-
     /**
      * Creates findById slq query of given entity in string
      * form that needs to be parameterized.
@@ -32,9 +25,7 @@ public class QueryGenerator<T> implements IQueryGenerator<T>
     @Override
     public String createFindByIdQuery(Class<?> pEntityClassObject)
     {
-        String tableName = pEntityClassObject.getSimpleName();
-        String idFieldName = EntityUtil.findIdFieldName(pEntityClassObject);
-        return BASE_SELECT +tableName + WHERE+ idFieldName+"=?";
+        return EntityMetadataRegistry.getMetadata(pEntityClassObject).getFindByIdSql();
     }
 
     /**
@@ -46,57 +37,23 @@ public class QueryGenerator<T> implements IQueryGenerator<T>
     @Override
     public String createFindAllQuery(Class<?> pEntityClassObject)
     {
-        String tableName = pEntityClassObject.getSimpleName();
-        return BASE_SELECT+tableName;
+        return EntityMetadataRegistry.getMetadata(pEntityClassObject).getFindAllSql();
     }
 
     /**
      * Creates insert slq query of given entity in string
      * form that needs to be parameterized.
+     * Id column is omitted If ids of entity are generated by db.
      *
      * @param pEntityClassObject the entity class object
-     * @return                   the insert sql query in string form
+     * @return                   the insert sql query in string form, null If entity has no column
      */
     @Override
     public String createInsertQuery(Class<?> pEntityClassObject)
     {
-        String tableName = pEntityClassObject.getSimpleName().toLowerCase(Locale.ROOT);
-        Field[] fields =  pEntityClassObject.getDeclaredFields();
-        String query = null;
-
-        if(fields.length > 0)
-        {
-            StringBuilder qMarks = new StringBuilder();
-            StringBuilder values = new StringBuilder();
-            qMarks.append(VALUES);
-            values.append(tableName.toUpperCase(Locale.ROOT));
-
-            for(int i=0; i< fields.length; i++)
-            {
-                fields[i].setAccessible(true);
-
-                if(i == 0)
-                {
-                    qMarks.append("(?");
-                    values.append("(").append(fields[i].getName());
-                }
-                else
-                {
-                    qMarks.append(",?");
-                    values.append(",").append(fields[i].getName());
-                }
-            }
-            qMarks.append(")");
-            values.append(") ");
-            query = INSERT_INTO + values + qMarks;
-        }
-        else
-        {
-            System.out.println("Entity "+tableName+" has no field !");
-        }
-
-
-        return query;
+        EntityMetadata metadata = EntityMetadataRegistry.getMetadata(pEntityClassObject);
+        return metadata.getIdStrategy() == GenerationType.IDENTITY ? metadata.getIdentityInsertSql()
+                : metadata.getInsertSql();
     }
 
     /**
@@ -109,33 +66,36 @@ public class QueryGenerator<T> implements IQueryGenerator<T>
     @Override
     public String createUpdateQuery(Class<?> pEntityClassObject)
     {
-        Field[] fields = pEntityClassObject.getDeclaredFields();
-        String tableName = pEntityClassObject.getSimpleName();
-        String idFieldName = EntityUtil.findIdFieldName(pEntityClassObject);
-        StringBuilder values = new StringBuilder();
-
-        int valueIndex = 0;
-
-        for(Field field : fields)
-        {
-            field.setAccessible(true);
-
-            if(field.isAnnotationPresent(Column.class))
-            {
-                if(valueIndex == 0 )
-                {
-                    values.append(field.getName()).append("=?");
-                }
-                else
-                {
-                    values.append(",").append(field.getName()).append("=?");
-                }
+        return EntityMetadataRegistry.getMetadata(pEntityClassObject).getUpdateSql();
+    }
 
-                valueIndex++;
-            }
-        }
+    /**
+     * Creates update slq query that sets only changed columns of entity.
+     * Queries are built once per column mask and cached.
+     *
+     * @param pEntityClassObject the entity class object
+     * @param pColumnMask        the changed column mask, {@link orm.metadata.EntitySnapshots#ALL_COLUMNS}
+     *                           for all columns
+     * @return                   the update sql query in string form
+     */
+    @Override
+    public String createUpdateQuery(Class<?> pEntityClassObject, long pColumnMask)
+    {
+        return EntityMetadataRegistry.getMetadata(pEntityClassObject).getUpdateSql(pColumnMask);
+    }
 
-        return UPDATE + tableName + SET + values + WHERE +idFieldName+"=?";
+    /**
+     * Creates upsert slq query of given entity that inserts entity or updates It If It's id exists.
+     * Syntax is decided by the dialect of configured db.
+     * Parameters are same as the insert query.
+     *
+     * @param pEntityClassObject the entity class object
+     * @return                   the upsert sql query in string form, null If entity has no id
+     */
+    @Override
+    public String createUpsertQuery(Class<?> pEntityClassObject)
+    {
+        return EntityMetadataRegistry.getMetadata(pEntityClassObject).getUpsertSql(DbConnectionProvider.getDialect());
     }
 
     /**
@@ -148,8 +108,46 @@ public class QueryGenerator<T> implements IQueryGenerator<T>
     @Override
     public String createDeleteQuery(Class<?> pEntityClassObject)
     {
-        String tableName = pEntityClassObject.getSimpleName();
-        String idFieldName = EntityUtil.findIdFieldName(pEntityClassObject);
-        return DELETE + tableName + WHERE + idFieldName+"=?";
+        return EntityMetadataRegistry.getMetadata(pEntityClassObject).getDeleteSql();
+    }
+
+    /**
+     * Creates keyset page query of first page that needs to be parameterized with page limit.
+     *
+     * @param pEntityClassObject the entity class object
+     * @return                   the first page sql query in string form, null If entity has no id
+     */
+    @Override
+    public String createFindFirstPageQuery(Class<?> pEntityClassObject)
+    {
+        return EntityMetadataRegistry.getMetadata(pEntityClassObject).getFindFirstPageSql();
+    }
+
+    /**
+     * Creates keyset page query that needs to be parameterized with
+     * last id of previous page and page limit.
+     * It seeks by the id index instead of skipping rows with OFFSET.
+     *
+     * @param pEntityClassObject the entity class object
+     * @return                   the page sql query in string form, null If entity has no id
+     */
+    @Override
+    public String createFindPageQuery(Class<?> pEntityClassObject)
+    {
+        return EntityMetadataRegistry.getMetadata(pEntityClassObject).getFindPageSql();
+    }
+
+    /**
+     * Creates multi-get query that needs to be parameterized with given number of ids.
+     *
+     * @param pEntityClassObject the entity class object
+     * @param pArity             the IN list arity, a power of two given by
+     *                           {@link orm.metadata.EntityMetadata#inListArity(int)}
+     * @return                   the multi-get sql query in string form, null If entity has no id
+     */
+    @Override
+    public String createFindByIdsQuery(Class<?> pEntityClassObject, int pArity)
+    {
+        return EntityMetadataRegistry.getMetadata(pEntityClassObject).getFindByIdsSql(pArity);
     }
 }
@@ -0,0 +1,60 @@
+package orm.types;
+
+import orm.metadata.FieldAccessor;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * Type handler of primitive boolean fields.
+ * Field values are bound and read through primitive accessor paths without boxing.
+ */
+public class BooleanTypeHandler implements TypeHandler<Boolean>
+{
+    @Override
+    public Class<Boolean> getJavaType()
+    {
+        return boolean.class;
+    }
+
+    @Override
+    public String getSqlType()
+    {
+        return "boolean";
+    }
+
+    @Override
+    public void bind(PreparedStatement pStatement, int pIndex, Boolean pValue) throws SQLException
+    {
+        if(pValue == null)
+        {
+            pStatement.setNull(pIndex, Types.BOOLEAN);
+        }
+        else
+        {
+            pStatement.setBoolean(pIndex, pValue);
+        }
+    }
+
+    @Override
+    public Boolean read(ResultSet pResultSet, int pColumnIndex) throws SQLException
+    {
+        return pResultSet.getBoolean(pColumnIndex);
+    }
+
+    @Override
+    public void bindField(PreparedStatement pStatement, int pIndex, FieldAccessor pAccessor, Object pEntity)
+            throws SQLException
+    {
+        pStatement.setBoolean(pIndex, pAccessor.getBoolean(pEntity));
+    }
+
+    @Override
+    public void readField(ResultSet pResultSet, int pColumnIndex, FieldAccessor pAccessor, Object pEntity)
+            throws SQLException
+    {
+        pAccessor.setBoolean(pEntity, pResultSet.getBoolean(pColumnIndex));
+    }
+}
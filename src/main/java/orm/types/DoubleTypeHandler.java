@@ -0,0 +1,60 @@
+package orm.types;
+
+import orm.metadata.FieldAccessor;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * Type handler of primitive double fields.
+ * Field values are bound and read through primitive accessor paths without boxing.
+ */
+public class DoubleTypeHandler implements TypeHandler<Double>
+{
+    @Override
+    public Class<Double> getJavaType()
+    {
+        return double.class;
+    }
+
+    @Override
+    public String getSqlType()
+    {
+        return "double";
+    }
+
+    @Override
+    public void bind(PreparedStatement pStatement, int pIndex, Double pValue) throws SQLException
+    {
+        if(pValue == null)
+        {
+            pStatement.setNull(pIndex, Types.DOUBLE);
+        }
+        else
+        {
+            pStatement.setDouble(pIndex, pValue);
+        }
+    }
+
+    @Override
+    public Double read(ResultSet pResultSet, int pColumnIndex) throws SQLException
+    {
+        return pResultSet.getDouble(pColumnIndex);
+    }
+
+    @Override
+    public void bindField(PreparedStatement pStatement, int pIndex, FieldAccessor pAccessor, Object pEntity)
+            throws SQLException
+    {
+        pStatement.setDouble(pIndex, pAccessor.getDouble(pEntity));
+    }
+
+    @Override
+    public void readField(ResultSet pResultSet, int pColumnIndex, FieldAccessor pAccessor, Object pEntity)
+            throws SQLException
+    {
+        pAccessor.setDouble(pEntity, pResultSet.getDouble(pColumnIndex));
+    }
+}
@@ -0,0 +1,53 @@
+package orm.types;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * Type handler of enum fields, enum constants are stored with their names.
+ *
+ * @param <E> the enum type
+ */
+public class EnumTypeHandler<E extends Enum<E>> implements TypeHandler<E>
+{
+    private final Class<E> enumType;
+
+    public EnumTypeHandler(Class<E> pEnumType)
+    {
+        this.enumType = pEnumType;
+    }
+
+    @Override
+    public Class<E> getJavaType()
+    {
+        return enumType;
+    }
+
+    @Override
+    public String getSqlType()
+    {
+        return "varchar(50)";
+    }
+
+    @Override
+    public void bind(PreparedStatement pStatement, int pIndex, E pValue) throws SQLException
+    {
+        if(pValue == null)
+        {
+            pStatement.setNull(pIndex, Types.VARCHAR);
+        }
+        else
+        {
+            pStatement.setString(pIndex, pValue.name());
+        }
+    }
+
+    @Override
+    public E read(ResultSet pResultSet, int pColumnIndex) throws SQLException
+    {
+        String name = pResultSet.getString(pColumnIndex);
+        return name == null ? null : Enum.valueOf(enumType, name);
+    }
+}
@@ -0,0 +1,60 @@
+package orm.types;
+
+import orm.metadata.FieldAccessor;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * Type handler of primitive int fields.
+ * Field values are bound and read through primitive accessor paths without boxing.
+ */
+public class IntTypeHandler implements TypeHandler<Integer>
+{
+    @Override
+    public Class<Integer> getJavaType()
+    {
+        return int.class;
+    }
+
+    @Override
+    public String getSqlType()
+    {
+        return "int";
+    }
+
+    @Override
+    public void bind(PreparedStatement pStatement, int pIndex, Integer pValue) throws SQLException
+    {
+        if(pValue == null)
+        {
+            pStatement.setNull(pIndex, Types.INTEGER);
+        }
+        else
+        {
+            pStatement.setInt(pIndex, pValue);
+        }
+    }
+
+    @Override
+    public Integer read(ResultSet pResultSet, int pColumnIndex) throws SQLException
+    {
+        return pResultSet.getInt(pColumnIndex);
+    }
+
+    @Override
+    public void bindField(PreparedStatement pStatement, int pIndex, FieldAccessor pAccessor, Object pEntity)
+            throws SQLException
+    {
+        pStatement.setInt(pIndex, pAccessor.getInt(pEntity));
+    }
+
+    @Override
+    public void readField(ResultSet pResultSet, int pColumnIndex, FieldAccessor pAccessor, Object pEntity)
+            throws SQLException
+    {
+        pAccessor.setInt(pEntity, pResultSet.getInt(pColumnIndex));
+    }
+}
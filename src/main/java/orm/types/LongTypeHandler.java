@@ -0,0 +1,60 @@
+package orm.types;
+
+import orm.metadata.FieldAccessor;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * Type handler of primitive long fields.
+ * Field values are bound and read through primitive accessor paths without boxing.
+ */
+public class LongTypeHandler implements TypeHandler<Long>
+{
+    @Override
+    public Class<Long> getJavaType()
+    {
+        return long.class;
+    }
+
+    @Override
+    public String getSqlType()
+    {
+        return "bigint";
+    }
+
+    @Override
+    public void bind(PreparedStatement pStatement, int pIndex, Long pValue) throws SQLException
+    {
+        if(pValue == null)
+        {
+            pStatement.setNull(pIndex, Types.BIGINT);
+        }
+        else
+        {
+            pStatement.setLong(pIndex, pValue);
+        }
+    }
+
+    @Override
+    public Long read(ResultSet pResultSet, int pColumnIndex) throws SQLException
+    {
+        return pResultSet.getLong(pColumnIndex);
+    }
+
+    @Override
+    public void bindField(PreparedStatement pStatement, int pIndex, FieldAccessor pAccessor, Object pEntity)
+            throws SQLException
+    {
+        pStatement.setLong(pIndex, pAccessor.getLong(pEntity));
+    }
+
+    @Override
+    public void readField(ResultSet pResultSet, int pColumnIndex, FieldAccessor pAccessor, Object pEntity)
+            throws SQLException
+    {
+        pAccessor.setLong(pEntity, pResultSet.getLong(pColumnIndex));
+    }
+}
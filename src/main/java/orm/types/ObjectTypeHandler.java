@@ -0,0 +1,91 @@
+package orm.types;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Type handler of a reference type built from a binder and a reader function.
+ * Null values are bound with {@link PreparedStatement#setNull(int, int)}.
+ *
+ * @param <T> the java type
+ */
+public class ObjectTypeHandler<T> implements TypeHandler<T>
+{
+    /**
+     * Binds a non-null value to a statement parameter.
+     *
+     * @param <T> the java type
+     */
+    @FunctionalInterface
+    public interface Binder<T>
+    {
+        void bind(PreparedStatement pStatement, int pIndex, T pValue) throws SQLException;
+    }
+
+    /**
+     * Reads a column value, returns null for sql null.
+     *
+     * @param <T> the java type
+     */
+    @FunctionalInterface
+    public interface Reader<T>
+    {
+        T read(ResultSet pResultSet, int pColumnIndex) throws SQLException;
+    }
+
+    private final Class<T> javaType;
+    private final String sqlType;
+    private final int jdbcType;
+    private final Binder<T> binder;
+    private final Reader<T> reader;
+
+    /**
+     * Creates type handler.
+     *
+     * @param pJavaType the java type
+     * @param pSqlType  the column type of create table query
+     * @param pJdbcType the {@link java.sql.Types} code that is used to bind null
+     * @param pBinder   the binder of non-null values
+     * @param pReader   the reader of column values
+     */
+    public ObjectTypeHandler(Class<T> pJavaType, String pSqlType, int pJdbcType, Binder<T> pBinder, Reader<T> pReader)
+    {
+        this.javaType = pJavaType;
+        this.sqlType = pSqlType;
+        this.jdbcType = pJdbcType;
+        this.binder = pBinder;
+        this.reader = pReader;
+    }
+
+    @Override
+    public Class<T> getJavaType()
+    {
+        return javaType;
+    }
+
+    @Override
+    public String getSqlType()
+    {
+        return sqlType;
+    }
+
+    @Override
+    public void bind(PreparedStatement pStatement, int pIndex, T pValue) throws SQLException
+    {
+        if(pValue == null)
+        {
+            pStatement.setNull(pIndex, jdbcType);
+        }
+        else
+        {
+            binder.bind(pStatement, pIndex, pValue);
+        }
+    }
+
+    @Override
+    public T read(ResultSet pResultSet, int pColumnIndex) throws SQLException
+    {
+        return reader.read(pResultSet, pColumnIndex);
+    }
+}
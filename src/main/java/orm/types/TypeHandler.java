@@ -0,0 +1,89 @@
+package orm.types;
+
+import orm.metadata.FieldAccessor;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps a java type to a column type.
+ * The same handler is used to create DDL, to bind parameters and to read result sets,
+ * so all of them agree on how a field type is stored.
+ * Custom handlers can be registered with {@link TypeHandlerRegistry#register(Class, TypeHandler)} before
+ * handlers are used, or listed in "META-INF/services/orm.types.TypeHandler".
+ * Handlers of primitive types override field methods to bind and read without boxing.
+ *
+ * @param <T> the java type
+ */
+public interface TypeHandler<T>
+{
+    /**
+     * Gets java type of this handler, It is used as registry key of service loaded handlers.
+     *
+     * @return the java type, primitive class for primitive handlers
+     */
+    Class<T> getJavaType();
+
+    /**
+     * Gets column type that is used in create table query.
+     *
+     * @return the sql column type
+     */
+    String getSqlType();
+
+    /**
+     * Binds value to given parameter index of statement.
+     *
+     * @param pStatement the prepared statement
+     * @param pIndex     the parameter index
+     * @param pValue     the value, may be null
+     *
+     * @throws SQLException sql exceptions
+     */
+    void bind(PreparedStatement pStatement, int pIndex, T pValue) throws SQLException;
+
+    /**
+     * Reads value of given column from current row of result set.
+     *
+     * @param pResultSet   the result set
+     * @param pColumnIndex the 1-based column index
+     * @return             the column value, null for sql null of non-primitive types
+     *
+     * @throws SQLException sql exceptions
+     */
+    T read(ResultSet pResultSet, int pColumnIndex) throws SQLException;
+
+    /**
+     * Binds field value of entity to given parameter index of statement.
+     *
+     * @param pStatement the prepared statement
+     * @param pIndex     the parameter index
+     * @param pAccessor  the field accessor
+     * @param pEntity    the entity object
+     *
+     * @throws SQLException sql exceptions
+     */
+    @SuppressWarnings("unchecked")
+    default void bindField(PreparedStatement pStatement, int pIndex, FieldAccessor pAccessor, Object pEntity)
+            throws SQLException
+    {
+        bind(pStatement, pIndex, (T) pAccessor.get(pEntity));
+    }
+
+    /**
+     * Reads value of given column from current row of result set into entity field.
+     *
+     * @param pResultSet   the result set
+     * @param pColumnIndex the 1-based column index
+     * @param pAccessor    the field accessor
+     * @param pEntity      the entity object
+     *
+     * @throws SQLException sql exceptions
+     */
+    default void readField(ResultSet pResultSet, int pColumnIndex, FieldAccessor pAccessor, Object pEntity)
+            throws SQLException
+    {
+        pAccessor.set(pEntity, read(pResultSet, pColumnIndex));
+    }
+}
@@ -0,0 +1,178 @@
+package orm.types;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe registry of type handlers.
+ * It is the single place that decides how a field type is created, bound and read.
+ * Built-in handlers are registered first, then handlers listed in
+ * "META-INF/services/orm.types.TypeHandler" are loaded and override them.
+ * Enum handlers are created on first use.
+ * Entity metadata and generated mapping classes keep the handlers they find, so handlers can only be
+ * registered before the first lookup. Handlers of primitive int, long, double and boolean can't be replaced,
+ * since generated mapping classes read and bind these types directly.
+ */
+public class TypeHandlerRegistry
+{
+    private static final Map<Class<?>, TypeHandler<?>> handlers = new ConcurrentHashMap<>();
+
+    /** True after the first lookup, handlers can't be registered anymore. */
+    private static volatile boolean used;
+
+    static
+    {
+        handlers.put(int.class, new IntTypeHandler());
+        handlers.put(long.class, new LongTypeHandler());
+        handlers.put(double.class, new DoubleTypeHandler());
+        handlers.put(boolean.class, new BooleanTypeHandler());
+        register(Integer.class, new ObjectTypeHandler<>(Integer.class, "int", Types.INTEGER,
+                (statement, index, value) -> statement.setInt(index, value),
+                (resultSet, index) -> nullable(resultSet, resultSet.getInt(index))));
+        register(Long.class, new ObjectTypeHandler<>(Long.class, "bigint", Types.BIGINT,
+                (statement, index, value) -> statement.setLong(index, value),
+                (resultSet, index) -> nullable(resultSet, resultSet.getLong(index))));
+        register(Double.class, new ObjectTypeHandler<>(Double.class, "double", Types.DOUBLE,
+                (statement, index, value) -> statement.setDouble(index, value),
+                (resultSet, index) -> nullable(resultSet, resultSet.getDouble(index))));
+        register(Boolean.class, new ObjectTypeHandler<>(Boolean.class, "boolean", Types.BOOLEAN,
+                (statement, index, value) -> statement.setBoolean(index, value),
+                (resultSet, index) -> nullable(resultSet, resultSet.getBoolean(index))));
+        // TODO :  varchar length can be obtained from an annotation value
+        register(String.class, new ObjectTypeHandler<>(String.class, "varchar(50)", Types.VARCHAR,
+                (statement, index, value) -> statement.setString(index, value),
+                ResultSet::getString));
+        register(BigDecimal.class, new ObjectTypeHandler<>(BigDecimal.class, "decimal(19,4)", Types.DECIMAL,
+                (statement, index, value) -> statement.setBigDecimal(index, value),
+                ResultSet::getBigDecimal));
+        register(Instant.class, new ObjectTypeHandler<>(Instant.class, "timestamp", Types.TIMESTAMP,
+                (statement, index, value) -> statement.setTimestamp(index, Timestamp.from(value)),
+                (resultSet, index) -> {
+                    Timestamp timestamp = resultSet.getTimestamp(index);
+                    return timestamp == null ? null : timestamp.toInstant();
+                }));
+        register(LocalDateTime.class, new ObjectTypeHandler<>(LocalDateTime.class, "timestamp", Types.TIMESTAMP,
+                (statement, index, value) -> statement.setTimestamp(index, Timestamp.valueOf(value)),
+                (resultSet, index) -> {
+                    Timestamp timestamp = resultSet.getTimestamp(index);
+                    return timestamp == null ? null : timestamp.toLocalDateTime();
+                }));
+        register(UUID.class, new ObjectTypeHandler<>(UUID.class, "char(36)", Types.CHAR,
+                (statement, index, value) -> statement.setString(index, value.toString()),
+                (resultSet, index) -> {
+                    String uuid = resultSet.getString(index);
+                    return uuid == null ? null : UUID.fromString(uuid);
+                }));
+        register(byte[].class, new ObjectTypeHandler<>(byte[].class, "blob", Types.BLOB,
+                (statement, index, value) -> statement.setBytes(index, value),
+                ResultSet::getBytes));
+
+        for(TypeHandler<?> handler : ServiceLoader.load(TypeHandler.class, TypeHandlerRegistry.class.getClassLoader()))
+        {
+            put(handler.getJavaType(), handler);
+        }
+    }
+
+    /**
+     * Private constructor to prevent object creation of this class.
+     */
+    private TypeHandlerRegistry()
+    {
+
+    }
+
+    /**
+     * Registers handler of given java type, replaces existing handler.
+     * Handlers must be registered before any handler is looked up, e.g. at application start up
+     * before entity metadata is built, so reflection and generated mapping classes use the same handlers.
+     *
+     * @param pJavaType the java type, primitive class for primitive fields
+     * @param pHandler  the type handler
+     * @param <T>       the java type
+     *
+     * @throws IllegalStateException Thrown If a handler was already looked up,
+     *                               or type is primitive int, long, double or boolean.
+     */
+    public static synchronized <T> void register(Class<T> pJavaType, TypeHandler<T> pHandler)
+    {
+        if(used)
+        {
+            throw new IllegalStateException("Type handler of "+pJavaType.getName()+" can not be registered !" +
+                    " Handlers must be registered before they are used.");
+        }
+
+        put(pJavaType, pHandler);
+    }
+
+    private static void put(Class<?> pJavaType, TypeHandler<?> pHandler)
+    {
+        if(pJavaType == int.class || pJavaType == long.class || pJavaType == double.class
+                || pJavaType == boolean.class)
+        {
+            throw new IllegalStateException("Type handler of "+pJavaType.getName()+" can not be replaced !" +
+                    " Generated mapping classes read and bind It directly.");
+        }
+
+        handlers.put(pJavaType, pHandler);
+    }
+
+    /**
+     * Finds handler of given java type.
+     *
+     * @param pJavaType the java type
+     * @param <T>       the java type
+     * @return          the type handler, null If type is unsupported
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static <T> TypeHandler<T> find(Class<T> pJavaType)
+    {
+        if(!used)
+        {
+            used = true;
+        }
+
+        TypeHandler<?> handler = handlers.get(pJavaType);
+
+        if(handler == null && pJavaType.isEnum())
+        {
+            handler = handlers.computeIfAbsent(pJavaType, type -> new EnumTypeHandler(type));
+        }
+
+        return (TypeHandler<T>) handler;
+    }
+
+    /**
+     * Finds handler of given java type, used by generated mapping classes.
+     *
+     * @param pJavaType the java type
+     * @param <T>       the java type
+     * @return          the type handler
+     *
+     * @throws IllegalStateException Thrown If type is unsupported.
+     */
+    public static <T> TypeHandler<T> require(Class<T> pJavaType)
+    {
+        TypeHandler<T> handler = find(pJavaType);
+
+        if(handler == null)
+        {
+            throw new IllegalStateException(pJavaType.getName()+" type is unsupported ! No type handler registered.");
+        }
+
+        return handler;
+    }
+
+    private static <T> T nullable(ResultSet pResultSet, T pValue) throws SQLException
+    {
+        return pResultSet.wasNull() ? null : pValue;
+    }
+}
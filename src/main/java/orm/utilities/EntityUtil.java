@@ -1,10 +1,12 @@
 package orm.utilities;
 
 import annotations.Entity;
-import annotations.Id;
 import orm.exception.UnsupportedFieldTypeException;
+import orm.mapping.ResultSetPlan;
+import orm.metadata.EntityMetadata;
+import orm.metadata.EntityMetadataRegistry;
+import orm.metadata.EntitySnapshots;
 
-import java.lang.reflect.Field;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.logging.Level;
@@ -37,15 +39,7 @@ public class EntityUtil
 
         if(EntityUtil.isEntity(pClassObject))
         {
-            Field[] fields = pClassObject.getDeclaredFields();
-
-            for(Field field : fields)
-            {
-                if(field.isAnnotationPresent(Id.class))
-                {
-                    idFieldName = field.getName();
-                }
-            }
+            idFieldName = EntityMetadataRegistry.getMetadata(pClassObject).getIdColumnName();
         }
         else
         {
@@ -67,7 +61,10 @@ public class EntityUtil
     }
 
     /**
-     * Maps ResultSet to Entity object.
+     * Maps ResultSet to Entity object using generated mapper of entity If present,
+     * otherwise cached field accessors.
+     * Column positions are resolved for this call, use
+     * {@link #mapToEntity(ResultSet, Class, int[])} to map many rows of the same result set.
      *
      * @param pResultSet            the query resultSet
      * @param pEntityClassObject    the entity class object that will be mapped
@@ -89,37 +86,44 @@ public class EntityUtil
     public static <T> T mapToEntity(ResultSet pResultSet, Class<?> pEntityClassObject) throws InstantiationException,
             IllegalAccessException, SQLException, UnsupportedFieldTypeException
     {
-        T entity = (T) pEntityClassObject.newInstance();
-        Field[] fields  = entity.getClass().getDeclaredFields();
-
-        for(Field field : fields)
-        {
-            field.setAccessible(true);
-
-            if(field.getType() ==  Long.class )
-            {
-                field.set(entity,pResultSet.getLong(field.getName()));
-            }
-            else if(field.getType() == int.class)
-            {
-                field.set(entity,pResultSet.getInt(field.getName()));
-            }
-            else if(field.getType() == String.class)
-            {
-                field.set(entity,pResultSet.getString(field.getName()));
-            }
-            else if(field.getType() == double.class)
-            {
-                field.set(entity,pResultSet.getDouble(field.getName()));
-            }
-            else
-            {
-                throw new UnsupportedFieldTypeException(field.getType()+" field type is unsupported ! " +
-                        "Mapping resultset to entity object is failed.");
-            }
-
-        }
+        return mapToEntity(pResultSet, pEntityClassObject, resolveColumnIndexes(pResultSet, pEntityClassObject));
+    }
 
+    /**
+     * Maps ResultSet to Entity object reading columns by resolved indexes.
+     * A snapshot of mapped entity is kept, so that update writes only the columns changed after loading.
+     *
+     * @param pResultSet            the query resultSet
+     * @param pEntityClassObject    the entity class object that will be mapped
+     * @param pColumnIndexes        the column indexes from {@link #resolveColumnIndexes(ResultSet, Class)}
+     * @param <T>                   the entity type
+     * @return                      the mapped entity object
+     *
+     * @throws InstantiationException Thrown when entity class cannot be instantiated.
+     * @throws SQLException           An exception that provides information on a database access
+     *                                error or other errors.
+     * @throws UnsupportedFieldTypeException Thrown when a class field data type is unsupported.
+     */
+    public static <T> T mapToEntity(ResultSet pResultSet, Class<?> pEntityClassObject, int[] pColumnIndexes)
+            throws InstantiationException, SQLException, UnsupportedFieldTypeException
+    {
+        EntityMetadata metadata = EntityMetadataRegistry.getMetadata(pEntityClassObject);
+        T entity = metadata.<T>getRowMapper().mapRow(pResultSet, pColumnIndexes);
+        EntitySnapshots.take(metadata, entity);
         return entity;
     }
+
+    /**
+     * Resolves result set column positions of entity columns once per result set.
+     *
+     * @param pResultSet         the query resultSet
+     * @param pEntityClassObject the entity class object that will be mapped
+     * @return                   the column indexes
+     *
+     * @throws SQLException Thrown If a column of entity is not in the result set.
+     */
+    public static int[] resolveColumnIndexes(ResultSet pResultSet, Class<?> pEntityClassObject) throws SQLException
+    {
+        return ResultSetPlan.resolve(pResultSet, EntityMetadataRegistry.getMetadata(pEntityClassObject));
+    }
 }
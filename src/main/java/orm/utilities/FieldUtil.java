@@ -1,6 +1,9 @@
 package orm.utilities;
 
 
+import orm.types.TypeHandler;
+import orm.types.TypeHandlerRegistry;
+
 import java.lang.reflect.Field;
 
 /**
@@ -17,34 +20,14 @@ public class FieldUtil
     }
 
     /**
-     * Finds data type of given field of class.
+     * Finds data type of given field of class using registered type handlers.
      *
      * @param pField the field
-     * @return       the data type of field
+     * @return       the data type of field, null If field type is unsupported
      */
-    // TODO other data types should be added
     public static String findDataTypeOfField(Field pField)
     {
-        String dataTye;
-
-        if(pField.getType() == int.class)
-        {
-            dataTye = "int";
-        }
-        else if(pField.getType() == String.class)
-        {
-            // TODO :  varchar value can be obtained from annotation max value , future work :)
-            dataTye = "varchar(50)";
-        }
-        else if(pField.getType() == Long.class)
-        {
-            dataTye = "int";
-        }
-        else
-        {
-            dataTye = null;
-        }
-
-        return dataTye;
+        TypeHandler<?> typeHandler = TypeHandlerRegistry.find(pField.getType());
+        return typeHandler == null ? null : typeHandler.getSqlType();
     }
 }
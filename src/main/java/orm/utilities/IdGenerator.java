@@ -8,7 +8,10 @@ import java.util.concurrent.atomic.AtomicLong;
  * This id is used as primary key in insert operation.
  * This class is used only for this example orm framework.
  * An enhanced id generator cna be used instead of this class.
+ *
+ * @deprecated ids start from 0 again on every restart, inserts use {@link orm.id.IdAllocators} instead.
  */
+@Deprecated
 public class IdGenerator
 {
     private static final AtomicLong id =  new AtomicLong(0);
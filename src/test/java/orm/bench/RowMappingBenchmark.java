@@ -0,0 +1,120 @@
+package orm.bench;
+
+import orm.entity.Person;
+import orm.mapping.ResultSetPlan;
+import orm.mapping.RowMapper;
+import orm.metadata.ColumnMetadata;
+import orm.metadata.EntityMetadata;
+import orm.metadata.EntityMetadataRegistry;
+import orm.metadata.EntitySnapshots;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Measures per-row mapping cost of reading columns by name against reading them by resolved indexes.
+ * Both ways map Person rows of an in-memory H2 table with the same type handlers, the only difference is
+ * that reading by name searches the column of every cell like the mapper did before {@link ResultSetPlan}.
+ * Snapshots are disabled, so dirty checking does not add to the measured cost.
+ * It's a main class instead of a test, so It is not run by the build. Run It after "mvn test-compile" with
+ *
+ * <pre>
+ *     java -cp target/classes:target/test-classes:&lt;h2 jar&gt; orm.bench.RowMappingBenchmark [rows] [rounds]
+ * </pre>
+ */
+public class RowMappingBenchmark
+{
+    private static final String FIND_ALL = "SELECT id,name,surname,age FROM person";
+
+    /**
+     * Private constructor to prevent object creation of this class.
+     */
+    private RowMappingBenchmark()
+    {
+
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        EntitySnapshots.setEnabled(false);
+        EntityMetadata metadata = EntityMetadataRegistry.getMetadata(Person.class);
+
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:bench", "sa", "");
+             Statement statement = connection.createStatement())
+        {
+            statement.execute("CREATE TABLE person(id bigint primary key,name varchar(50),"
+                    + "surname varchar(50),age int)");
+            statement.execute("INSERT INTO person SELECT x,'name'||x,'surname'||x,MOD(x,90) "
+                    + "FROM SYSTEM_RANGE(1,"+rows+")");
+
+            // first half of rounds warms up the jit, only the last round is reported
+            for(int round = 1; round <= rounds; round++)
+            {
+                long byName = timeByName(statement, metadata);
+                long byIndex = timeByIndex(statement, metadata);
+
+                if(round == rounds)
+                {
+                    System.out.printf("%d rows: by name %.1f ns/row, by index %.1f ns/row%n", rows,
+                            (double) byName / rows, (double) byIndex / rows);
+                }
+            }
+        }
+    }
+
+    private static long timeByName(Statement pStatement, EntityMetadata pMetadata) throws Exception
+    {
+        List<ColumnMetadata> columns = pMetadata.getAllColumns();
+        long start = System.nanoTime();
+        long checksum = 0;
+
+        try (ResultSet resultSet = pStatement.executeQuery(FIND_ALL))
+        {
+            while (resultSet.next())
+            {
+                Person person = (Person) pMetadata.newInstance();
+
+                for(ColumnMetadata column : columns)
+                {
+                    column.read(resultSet, resultSet.findColumn(column.getName()), person);
+                }
+
+                checksum += person.getAge();
+            }
+        }
+
+        return consume(System.nanoTime() - start, checksum);
+    }
+
+    private static long timeByIndex(Statement pStatement, EntityMetadata pMetadata) throws Exception
+    {
+        RowMapper<Person> rowMapper = pMetadata.getRowMapper();
+        long start = System.nanoTime();
+        long checksum = 0;
+
+        try (ResultSet resultSet = pStatement.executeQuery(FIND_ALL))
+        {
+            int[] columnIndexes = ResultSetPlan.resolve(resultSet, pMetadata);
+
+            while (resultSet.next())
+            {
+                checksum += rowMapper.mapRow(resultSet, columnIndexes).getAge();
+            }
+        }
+
+        return consume(System.nanoTime() - start, checksum);
+    }
+
+    /**
+     * Uses checksum of mapped rows, so the jit can not drop the mapping.
+     */
+    private static long consume(long pElapsed, long pChecksum)
+    {
+        return pChecksum == Long.MIN_VALUE ? pElapsed + 1 : pElapsed;
+    }
+}